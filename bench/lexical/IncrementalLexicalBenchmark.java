@@ -0,0 +1,54 @@
+package lexical;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import utils.Benchmark;
+
+/**
+ * Measures the lexical analysis of single character edits in a large
+ * generated source code, processing the whole code again and processing
+ * it incrementally.
+ * Usage: java -cp bin/ lexical.IncrementalLexicalBenchmark [lines] [edits]
+ */
+public class IncrementalLexicalBenchmark
+{
+	public static void main(String[] args) throws Exception
+	{
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+		int edits = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		
+		List<String> lines = new ArrayList<>(Arrays.asList(Benchmark.generateProgram(count / 3).split("\n")));
+		IncrementalLexicalAnalyser analyser = new IncrementalLexicalAnalyser(lines);
+		analyser.process();
+		
+		System.out.println(String.format("%d lines", lines.size()));
+		
+		Random random = new Random(1);
+		
+		Benchmark.run("Process everything per edit", edits, () -> {
+			int line = random.nextInt(lines.size());
+			lines.set(line, lines.get(line) + "x");
+			return LexicalAnalyser.process(lines);
+		});
+		
+		Benchmark.run("Process edited lines", edits, () -> {
+			int line = random.nextInt(lines.size());
+			return analyser.process(new LineEdit(line, 1, analyser.getLines().get(line) + "x"));
+		});
+		
+		// A comment opened, which is not closed, and removed, so every line
+		// after it is processed again twice
+		Benchmark.run("Open and remove a comment", edits, () -> {
+			int line = random.nextInt(lines.size());
+			String text = analyser.getLines().get(line);
+			
+			try { analyser.process(new LineEdit(line, 1, "{" + text)); }
+			catch (LexicalException e) { }
+			
+			return analyser.process(new LineEdit(line, 1, text));
+		});
+	}
+}
@@ -0,0 +1,48 @@
+package lexical;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import utils.Benchmark;
+
+/**
+ * Measures the bytes allocated per token by the lexical analysis of a
+ * large generated source code, processed from a string and from a
+ * mapped file.
+ * Usage: java -cp bin/ lexical.LexicalAllocationBenchmark [variables] [runs]
+ */
+public class LexicalAllocationBenchmark
+{
+	public static void main(String[] args) throws Exception
+	{
+		int variables = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		
+		String code = Benchmark.generateProgram(variables);
+		Path path = Files.createTempFile("generated", ".pas");
+		path.toFile().deleteOnExit();
+		Files.write(path, code.getBytes(StandardCharsets.UTF_8));
+		
+		int tokens = LexicalAnalyser.process(code).size();
+		System.out.println(String.format("%d tokens", tokens));
+		
+		measure("Process string", runs, tokens, () -> LexicalAnalyser.process(code));
+		measure("Process mapped file", runs, tokens, () -> LexicalAnalyser.process(path));
+	}
+	
+	private interface Task {
+		void run() throws Exception;
+	}
+	
+	private static void measure(String name, int runs, int tokens, Task task) throws Exception
+	{
+		for (int i = 0; i < runs; i++) task.run();
+		
+		long allocated = Benchmark.allocatedBytes();
+		for (int i = 0; i < runs; i++) task.run();
+		allocated = (Benchmark.allocatedBytes() - allocated) / runs;
+		
+		System.out.println(String.format("%-40s %10.2f bytes per token", name, (double) allocated / tokens));
+	}
+}
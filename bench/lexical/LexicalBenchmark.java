@@ -0,0 +1,41 @@
+package lexical;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import utils.Benchmark;
+
+/**
+ * Measures the lexical analysis of a large generated source file.
+ * Usage: java -cp bin/ lexical.LexicalBenchmark [variables] [runs] [lines|mapped|parallel]
+ * Running each input path in its own JVM avoids one of them being
+ * compiled with the profile of the other.
+ */
+public class LexicalBenchmark
+{
+	public static void main(String[] args) throws Exception
+	{
+		int variables = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		String mode = args.length > 2 ? args[2] : "";
+		
+		Path path = Files.createTempFile("generated", ".pas");
+		path.toFile().deleteOnExit();
+		Files.write(path, Benchmark.generateProgram(variables).getBytes(StandardCharsets.UTF_8));
+		
+		System.out.println(String.format("File with %d bytes", Files.size(path)));
+		
+		if (mode.isEmpty() || mode.equals("lines"))
+			Benchmark.run("Read lines and process", runs,
+					() -> LexicalAnalyser.process(Files.readAllLines(path, StandardCharsets.UTF_8)));
+		
+		if (mode.isEmpty() || mode.equals("mapped"))
+			Benchmark.run("Process mapped file", runs,
+					() -> LexicalAnalyser.process(path));
+		
+		if (mode.isEmpty() || mode.equals("parallel"))
+			Benchmark.run("Read lines and process in parallel", runs,
+					() -> new ParallelLexicalAnalyser().process(Files.readAllLines(path, StandardCharsets.UTF_8)));
+	}
+}
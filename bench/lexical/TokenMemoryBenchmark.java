@@ -0,0 +1,44 @@
+package lexical;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import utils.Benchmark;
+
+/**
+ * Measures the memory retained by the tokens of a large generated source
+ * code, stored as a list of symbols, each one with its own string, and
+ * stored in a {@link TokenBuffer}.
+ * Usage: java -cp bin/ lexical.TokenMemoryBenchmark [variables]
+ */
+public class TokenMemoryBenchmark
+{
+	public static void main(String[] args)
+	{
+		int variables = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		String code = Benchmark.generateProgram(variables);
+		
+		long base = Benchmark.usedMemory();
+		TokenBuffer buffer = LexicalAnalyser.process(code);
+		long bufferMemory = Benchmark.usedMemory() - base;
+		
+		int tokens = buffer.size();
+		System.out.println(String.format("%d tokens", tokens));
+		
+		base = Benchmark.usedMemory();
+		List<Symbol> symbols = new ArrayList<>();
+		for (int i = 0; i < tokens; i++)
+			symbols.add(new Symbol(new String(buffer.getToken(i)), buffer.getType(i), buffer.getAt(i)));
+		long listMemory = Benchmark.usedMemory() - base;
+		
+		print("List of symbols", listMemory, tokens);
+		print("Token buffer", bufferMemory, tokens);
+		
+		// Keeps both alive until measured
+		if (symbols.size() != buffer.size()) throw new AssertionError();
+	}
+	
+	private static void print(String name, long memory, int tokens) {
+		System.out.println(String.format("%-40s %10.2f MB per million tokens", name, memory * 1e6 / tokens / (1 << 20)));
+	}
+}
@@ -0,0 +1,95 @@
+package semantic;
+
+import lexical.Symbol;
+import lexical.TokenType;
+import utils.Benchmark;
+
+/**
+ * Measures the bytes allocated per declaration by the semantic analysis of
+ * many procedures, each one with parameters and variables, and called with
+ * arguments. The events are called directly, so the symbols aren't counted.
+ * Usage: java -cp bin/ semantic.SemanticAllocationBenchmark [procedures] [runs]
+ */
+public class SemanticAllocationBenchmark
+{
+	private static final Symbol INTEGER = new Symbol("integer", TokenType.KeyWord, 1);
+	private static final Symbol REAL = new Symbol("real", TokenType.KeyWord, 1);
+	private static final Symbol VALUE = new Symbol("1", TokenType.Integer, 1);
+	private static final Symbol OPERATOR = new Symbol(":=", TokenType.AssignmentCommand, 1);
+	
+	private static Symbol identifier(String name) {
+		return new Symbol(name, TokenType.Identifier, 1);
+	}
+	
+	/**
+	 * Analyses a program with procedures, each one with two parameters and
+	 * three variables, called once in the program body.
+	 */
+	private static void analyse(Symbol[] procedures, Symbol[] variables)
+	{
+		SemanticAnalyser analyser = new SemanticAnalyser();
+		int i = 0;
+		
+		analyser.onScopeBegin(i++, 1);
+		
+		for (Symbol procedure : procedures)
+		{
+			analyser.onProcedureDeclaration(i++, procedure);
+			analyser.onScopeBegin(i++, 1);
+			analyser.onProcedureParametersDeclarationBegin(i++, procedure);
+			analyser.onVariableDeclaration(i++, variables[0]);
+			analyser.onTypeDefinition(i++, INTEGER);
+			analyser.onVariableDeclaration(i++, variables[1]);
+			analyser.onTypeDefinition(i++, REAL);
+			analyser.onProcedureParametersDeclarationEnd(i++, procedure);
+			
+			for (int k = 2; k < variables.length; k++) analyser.onVariableDeclaration(i++, variables[k]);
+			analyser.onTypeDefinition(i++, INTEGER);
+			
+			analyser.onVariable(i++, variables[2]);
+			analyser.onVariable(i++, variables[0]);
+			analyser.onOperator(i++, OPERATOR);
+			analyser.onScopeEnd(i++, 1);
+		}
+		
+		for (Symbol procedure : procedures)
+		{
+			analyser.onProcedure(i++, procedure);
+			analyser.onProcedureArgumentsBegin(i++, procedure);
+			analyser.onValue(i++, VALUE);
+			analyser.onProcedureArgument(i++, VALUE);
+			analyser.onValue(i++, VALUE);
+			analyser.onProcedureArgument(i++, VALUE);
+			analyser.onProcedureArgumentsEnd(i++, procedure);
+		}
+		
+		analyser.onScopeEnd(i++, 1);
+	}
+	
+	public static void main(String[] args) throws Exception
+	{
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		
+		Symbol[] procedures = new Symbol[count];
+		for (int k = 0; k < count; k++) procedures[k] = identifier("procedure" + k);
+		
+		Symbol[] variables = { identifier("a"), identifier("b"), identifier("c"), identifier("d"), identifier("e") };
+		int declarations = count * (1 + variables.length);
+		
+		System.out.println(String.format("%d procedures, %d declarations", count, declarations));
+		
+		for (int i = 0; i < runs; i++) analyse(procedures, variables);
+		
+		long allocated = Benchmark.allocatedBytes();
+		long start = System.nanoTime();
+		
+		for (int i = 0; i < runs; i++) analyse(procedures, variables);
+		
+		long time = (System.nanoTime() - start) / runs;
+		allocated = (Benchmark.allocatedBytes() - allocated) / runs;
+		
+		System.out.println(String.format("%-40s %10.2f ms %10.2f bytes per declaration", "Analyse declarations",
+				time / 1e6, (double) allocated / declarations));
+	}
+}
@@ -0,0 +1,81 @@
+package syntactic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import lexical.IncrementalLexicalAnalyser;
+import lexical.LineEdit;
+import lexical.TokenBuffer;
+import utils.Benchmark;
+
+/**
+ * Measures the analysis of single character edits in large generated source
+ * codes, processing the edited lines and analysing the whole code again, and
+ * analysing it incrementally. The edits are in the bodies of procedures in
+ * one code, and in the compound command of the program in the other.
+ * Usage: java -cp bin/ syntactic.IncrementalSyntacticBenchmark [lines] [edits]
+ */
+public class IncrementalSyntacticBenchmark
+{
+	/**
+	 * Measures the edits of the lines that contain a text, which is replaced
+	 * by another one and back.
+	 */
+	private static void run(String name, String code, String text, String replacement, int edits) throws Exception
+	{
+		List<String> lines = new ArrayList<>(Arrays.asList(code.split("\n")));
+
+		int[] edited = new int[lines.size()];
+		int count = 0;
+
+		for (int i = 0; i < lines.size(); i++)
+			if (lines.get(i).contains(text)) edited[count++] = i;
+
+		IncrementalLexicalAnalyser lexical = new IncrementalLexicalAnalyser(lines);
+		TokenBuffer symbols = lexical.process();
+		IncrementalSyntacticAnalyser syntactic = new IncrementalSyntacticAnalyser(symbols);
+		syntactic.analyse();
+
+		System.out.println(String.format("%s: %d lines, %d tokens", name, lines.size(), symbols.size()));
+
+		Random random = new Random(1);
+		int size = count;
+
+		Benchmark.run("Analyse everything per edit", edits, () -> {
+			int line = edited[random.nextInt(size)];
+			String before = lexical.getLines().get(line);
+			String after = before.contains(text) ? before.replace(text, replacement) : before.replace(replacement, text);
+
+			lexical.process(new LineEdit(line, 1, after));
+			return new SyntacticAnalyser(symbols).analyseTree();
+		});
+
+		// Analyses the edits above first
+		syntactic.analyse();
+		long[] analysed = { 0 };
+
+		Benchmark.run("Analyse the edited part", edits, () -> {
+			int line = edited[random.nextInt(size)];
+			String before = lexical.getLines().get(line);
+			String after = before.contains(text) ? before.replace(text, replacement) : before.replace(replacement, text);
+
+			lexical.process(new LineEdit(line, 1, after));
+			SyntaxTree tree = syntactic.analyse();
+			analysed[0] += syntactic.getAnalysed();
+			return tree;
+		});
+
+		System.out.println(String.format("%d tokens analysed per edit", analysed[0] / (edits * 2)));
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		int lines = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+		int edits = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+		run("Procedures", Benchmark.generateProceduresProgram(lines / 10), "n * 2", "n * 3", edits);
+		run("Program", Benchmark.generateProgram(lines / 3), "3 *", "4 *", edits);
+	}
+}
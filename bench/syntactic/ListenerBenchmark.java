@@ -0,0 +1,57 @@
+package syntactic;
+
+import lexical.LexicalAnalyser;
+import lexical.TokenBuffer;
+import semantic.SemanticAnalyser;
+import utils.Benchmark;
+
+/**
+ * Measures the syntactic analysis of a large generated source code with no
+ * listener, with an empty listener interested in every event, as all of
+ * them were before the listeners had an event mask, with an event log and
+ * with the semantic analyser.
+ * Usage: java -cp bin/ syntactic.ListenerBenchmark [procedures] [runs]
+ */
+public class ListenerBenchmark
+{
+	public static void main(String[] args) throws Exception
+	{
+		int procedures = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		
+		TokenBuffer symbols = LexicalAnalyser.process(Benchmark.generateProceduresProgram(procedures));
+		System.out.println(String.format("Code with %d procedures and %d tokens", procedures, symbols.size()));
+		
+		Benchmark.run("Analyse with no listener", runs, () -> {
+			new SyntacticAnalyser(symbols).analyse();
+			return null;
+		});
+		
+		Benchmark.run("Analyse with an empty listener of every event", runs, () -> {
+			new SyntacticAnalyser(symbols, new EmptySyntaticListener() {
+				@Override
+				public int getEvents() {
+					return ALL;
+				}
+			}).analyse();
+			return null;
+		});
+		
+		EventLog log = Benchmark.run("Analyse recording the events", runs, () -> {
+			EventLog events = new EventLog(symbols);
+			new SyntacticAnalyser(symbols, events).analyse();
+			return events;
+		});
+		System.out.println(String.format("%d events", log.size()));
+		
+		Benchmark.run("Analyse with the semantic analyser", runs, () -> {
+			new SyntacticAnalyser(symbols, new SemanticAnalyser()).analyse();
+			return null;
+		});
+		
+		Benchmark.run("Replay the events to the semantic analyser", runs, () -> {
+			log.replay(new SemanticAnalyser());
+			return null;
+		});
+	}
+}
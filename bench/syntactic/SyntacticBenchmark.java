@@ -0,0 +1,105 @@
+package syntactic;
+
+import lexical.LexicalAnalyser;
+import lexical.TokenBuffer;
+import utils.Benchmark;
+
+/**
+ * Measures the syntactic analysis of large generated source codes, one
+ * with many flat commands, one with many nested control commands and one
+ * with many procedures, which is also analysed in parallel. The flat and
+ * nested codes are also analysed by the grammar table.
+ * Usage: java -cp bin/ syntactic.SyntacticBenchmark [variables] [runs] [depth]
+ */
+public class SyntacticBenchmark
+{
+	/**
+	 * Generates a valid program with blocks of control commands nested to
+	 * a depth.
+	 */
+	private static String generateNestedProgram(int blocks, int depth)
+	{
+		StringBuilder code = new StringBuilder();
+		
+		code.append("program nested;\nvar value: integer;\nbegin\n");
+		
+		for (int block = 0; block < blocks; block++)
+		{
+			for (int i = 0; i < depth; i++)
+			{
+				switch (i % 4)
+				{
+					case 0: code.append("if value < ").append(i).append(" then "); break;
+					case 1: code.append("while value > ").append(i).append(" do "); break;
+					case 2: code.append("begin value := value + 1; "); break;
+					case 3: code.append("do "); break;
+				}
+			}
+			
+			code.append("value := value * 2");
+			
+			for (int i = depth - 1; i >= 0; i--)
+			{
+				if (i % 4 == 2) code.append(" end");
+				else if (i % 4 == 3) code.append(" while value <> ").append(i);
+			}
+			
+			code.append(";\n");
+		}
+		
+		code.append("end.\n");
+		
+		return code.toString();
+	}
+	
+	public static void main(String[] args) throws Exception
+	{
+		int variables = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int depth = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+		
+		TokenBuffer flat = LexicalAnalyser.process(Benchmark.generateProgram(variables));
+		TokenBuffer nested = LexicalAnalyser.process(generateNestedProgram(variables / depth, depth));
+		TokenBuffer procedures = LexicalAnalyser.process(Benchmark.generateProceduresProgram(variables / 10));
+		
+		System.out.println(String.format("Flat code with %d tokens", flat.size()));
+		Benchmark.run("Analyse flat code", runs, () -> {
+			new SyntacticAnalyser(flat).analyse();
+			return null;
+		});
+		
+		Benchmark.run("Analyse flat code with the table", runs, () -> {
+			new TableSyntacticAnalyser(flat).analyse();
+			return null;
+		});
+		
+		SyntaxTree tree = Benchmark.run("Analyse flat code building the tree", runs,
+				() -> new SyntacticAnalyser(flat).analyseTree());
+		System.out.println(String.format("Tree with %d nodes", tree.size()));
+		
+		System.out.println(String.format("Nested code with %d tokens, depth %d", nested.size(), depth));
+		Benchmark.run("Analyse nested code", runs, () -> {
+			new SyntacticAnalyser(nested).analyse();
+			return null;
+		});
+		Benchmark.run("Analyse nested code with the table", runs, () -> {
+			new TableSyntacticAnalyser(nested).analyse();
+			return null;
+		});
+		Benchmark.run("Analyse nested code building the tree", runs,
+				() -> new SyntacticAnalyser(nested).analyseTree());
+		
+		System.out.println(String.format("Code with %d procedures and %d tokens, %d processors",
+				variables / 10, procedures.size(), Runtime.getRuntime().availableProcessors()));
+		Benchmark.run("Analyse procedures", runs, () -> {
+			new SyntacticAnalyser(procedures).analyse();
+			return null;
+		});
+		Benchmark.run("Analyse procedures in parallel", runs, () -> {
+			new ParallelSyntacticAnalyser(procedures).analyse();
+			return null;
+		});
+		Benchmark.run("Analyse procedures in parallel building the tree", runs,
+				() -> new ParallelSyntacticAnalyser(procedures).analyseTree());
+	}
+}
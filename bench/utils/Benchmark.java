@@ -0,0 +1,123 @@
+package utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+
+/**
+ * Helpers to measure the time and the memory allocated by a task, and to
+ * generate large source codes.
+ */
+public class Benchmark
+{
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+	
+	/**
+	 * Returns the number of bytes allocated by the current thread so far.
+	 */
+	public static long allocatedBytes() {
+		return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	
+	/**
+	 * Returns the number of bytes retained in the heap after a collection.
+	 */
+	public static long usedMemory()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		
+		for (int i = 0; i < 3; i++) System.gc();
+		
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+	
+	/**
+	 * Runs a task a number of times after warming it up and prints the
+	 * average time and allocated bytes of each run.
+	 * @param name the task name.
+	 * @param runs the number of measured runs.
+	 * @param task the task.
+	 * @return the result of the last run.
+	 */
+	public static <T> T run(String name, int runs, Callable<T> task) throws Exception
+	{
+		T result = null;
+		
+		for (int i = 0; i < runs; i++) result = task.call();
+		
+		long allocated = allocatedBytes();
+		long start = System.nanoTime();
+		
+		for (int i = 0; i < runs; i++) result = task.call();
+		
+		long time = (System.nanoTime() - start) / runs;
+		allocated = (allocatedBytes() - allocated) / runs;
+		
+		System.out.println(String.format("%-40s %10.2f ms %14d bytes", name, time / 1e6, allocated));
+		
+		return result;
+	}
+	
+	/**
+	 * Generates a valid program with a number of variables, each one
+	 * declared, assigned and tested in a condition.
+	 * @param variables the number of variables.
+	 * @return the code.
+	 */
+	public static String generateProgram(int variables)
+	{
+		StringBuilder code = new StringBuilder();
+		
+		code.append("program generated; {generated program}\n");
+		code.append("var\n");
+		
+		for (int i = 0; i < variables; i++)
+			code.append("\tvalue").append(i).append(", Other").append(i).append(": integer;\n");
+		
+		code.append("\tresult: real;\n\n");
+		code.append("procedure percentage (n1: real; per1: real);\n");
+		code.append("begin\n");
+		code.append("\tper1 := n1 * (21 / 100);\n");
+		code.append("end;\n\n");
+		code.append("begin\n");
+		
+		for (int i = 0; i < variables; i++)
+		{
+			code.append("\tvalue").append(i).append(" := other").append(i)
+				.append(" + 3 * (VALUE").append(i).append(" - 12); // update\n");
+			code.append("\tif value").append(i).append(" >= 10 then percentage(result, 2.5);\n");
+		}
+		
+		code.append("end.\n");
+		
+		return code.toString();
+	}
+	
+	/**
+	 * Generates a valid program with many procedures declared, of 10 lines each.
+	 */
+	public static String generateProceduresProgram(int procedures)
+	{
+		StringBuilder code = new StringBuilder();
+		
+		code.append("program procedures;\nvar value: integer;\n");
+		
+		for (int i = 0; i < procedures; i++)
+		{
+			code.append("procedure update").append(i).append(" (n: integer; rate: real);\n");
+			code.append("var counter: integer;\n");
+			code.append("begin\n");
+			code.append("\tcounter := n * 2 + value;\n");
+			code.append("\twhile counter > 0 do\n");
+			code.append("\tbegin\n");
+			code.append("\t\tif counter >= 10 then rate := rate * (21 / 100) else value := value - counter;\n");
+			code.append("\t\tcounter := counter - 1\n");
+			code.append("\tend\n");
+			code.append("end;\n");
+		}
+		
+		code.append("begin\n\tupdate0(value, 2.5)\nend.\n");
+		
+		return code.toString();
+	}
+}
@@ -1,35 +1,93 @@
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 
 import lexical.LexicalAnalyser;
+import lexical.ParallelLexicalAnalyser;
 import lexical.Symbol;
+import lexical.TokenCache;
+import lexical.TokenStream;
 import semantic.SemanticAnalyser;
+import syntactic.ParallelSyntacticAnalyser;
 import syntactic.SyntacticAnalyser;
 
 public class Program
 {
 	public static void main(String[] args) throws IOException
 	{
-		if (args.length == 0) args = new String[] { "test-files/test1.pas" };
+		String file = "test-files/test1.pas";
+		// Processes the bytes of the file mapped into memory
+		boolean mapped = false;
+		// Processes chunks of lines of the file, and then the procedures
+		// declared in the program, in parallel
+		boolean parallel = false;
+		// The directory where the symbols of the file are cached
+		String cache = null;
+		// Analyses the symbols while they are read, without keeping all of them
+		boolean stream = false;
+		
+		for (String arg : args)
+		{
+			if (arg.equals("--mmap")) mapped = true;
+			else if (arg.equals("--parallel")) parallel = true;
+			else if (arg.equals("--stream")) stream = true;
+			else if (arg.equals("--cache")) cache = "";
+			else if (arg.startsWith("--cache=")) cache = arg.substring("--cache=".length());
+			else file = arg;
+		}
 		
 		try
 		{
-			System.out.println(String.format("Reading %s...", args[0]));
-			List<String> code = Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8);
+			System.out.println(String.format("Reading %s...", file));
+			Path path = Paths.get(file);
+			List<Symbol> symbols;
+			
+			if (stream)
+			{
+				System.out.println("Running lexical, syntactic and semantic analysis...");
+				
+				try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+					new SyntacticAnalyser(new TokenStream(reader), new SemanticAnalyser()).analyse();
+				}
+				
+				System.out.println("Success!");
+				return;
+			}
+			
+			if (cache != null)
+			{
+				Path directory = cache.isEmpty()
+						? path.toAbsolutePath().resolveSibling(".tokens")
+						: Paths.get(cache);
+				
+				System.out.println("Running lexical analysis...");
+				symbols = new TokenCache(directory).process(path);
+			}
+			else if (mapped)
+			{
+				System.out.println("Running lexical analysis...");
+				symbols = LexicalAnalyser.process(path);
+			}
+			else
+			{
+				List<String> code = Files.readAllLines(path, StandardCharsets.UTF_8);
 
-			System.out.println("Running lexical analysis...");
-			List<Symbol> symbols = LexicalAnalyser.process(code);
+				System.out.println("Running lexical analysis...");
+				symbols = parallel ? new ParallelLexicalAnalyser().process(code) : LexicalAnalyser.process(code);
+			}
 			
 			System.out.println("\nToken table:");
 			for (Symbol symbol : symbols)
 				System.out.println(symbol.toFormatedString());
 	
 			System.out.println("\nRunning syntactic and semantic analysis...");
-			new SyntacticAnalyser(symbols, new SemanticAnalyser()).analyse();
-
+			SemanticAnalyser semantic = new SemanticAnalyser();
+			(parallel ? new ParallelSyntacticAnalyser(symbols, semantic) : new SyntacticAnalyser(symbols, semantic)).analyse();
+			
 			System.out.println("Success!");
 		}
 		catch (Exception e) {
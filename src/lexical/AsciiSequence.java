@@ -0,0 +1,131 @@
+package lexical;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Represents a range of ASCII encoded bytes as characters, so they can
+ * be processed without being decoded.
+ * Searches read the bytes 8 at a time as a long, testing all of them at
+ * once with arithmetic on the word (SWAR, SIMD within a register).
+ */
+class AsciiSequence implements CharSequence
+{
+	private static final long ONES = 0x0101010101010101L;
+	private static final long HIGHS = 0x8080808080808080L;
+	private static final long LINE_FEEDS = ONES * '\n';
+	private static final long CARRIAGE_RETURNS = ONES * '\r';
+	
+	private final byte[] bytes;
+	// The bytes read as longs
+	private final ByteBuffer words;
+	private final int offset;
+	private final int length;
+	
+	private AsciiSequence(byte[] bytes, ByteBuffer words, int offset, int length)
+	{
+		this.bytes = bytes;
+		this.words = words;
+		this.offset = offset;
+		this.length = length;
+	}
+	
+	AsciiSequence(byte[] bytes, int offset, int length) {
+		this(bytes, ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN), offset, length);
+	}
+	
+	AsciiSequence(byte[] bytes) {
+		this(bytes, 0, bytes.length);
+	}
+	
+	@Override
+	public char charAt(int index) {
+		return (char) (this.bytes[this.offset + index] & 0xFF);
+	}
+	
+	@Override
+	public int length() {
+		return this.length;
+	}
+	
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return new AsciiSequence(this.bytes, this.words, this.offset + start, end - start);
+	}
+	
+	@Override
+	public String toString() {
+		return new String(this.bytes, this.offset, this.length, StandardCharsets.ISO_8859_1);
+	}
+	
+	/**
+	 * Returns the index of the first occurrence of an ASCII character.
+	 * @param c the character.
+	 * @param from the index to start from.
+	 * @param to the index to stop at.
+	 * @return the index or -1 if it's not found.
+	 */
+	int indexOf(char c, int from, int to)
+	{
+		long pattern = ONES * c;
+		int i = from;
+		
+		for (; i + 8 <= to; i += 8)
+		{
+			long found = zeros(word(i) ^ pattern);
+			if (found != 0) return i + first(found);
+		}
+		
+		for (; i < to; i++)
+			if (this.bytes[this.offset + i] == c)
+				return i;
+		
+		return -1;
+	}
+	
+	/**
+	 * Returns the index of the first '\n', '\r' or byte that's not ASCII.
+	 * @param from the index to start from.
+	 * @param to the index to stop at.
+	 * @return the index or -1 if it's not found.
+	 */
+	int indexOfLineBreak(int from, int to)
+	{
+		int i = from;
+		
+		for (; i + 8 <= to; i += 8)
+		{
+			long word = word(i);
+			long found = zeros(word ^ LINE_FEEDS) | zeros(word ^ CARRIAGE_RETURNS) | (word & HIGHS);
+			if (found != 0) return i + first(found);
+		}
+		
+		for (; i < to; i++)
+		{
+			byte b = this.bytes[this.offset + i];
+			if (b == '\n' || b == '\r' || b < 0) return i;
+		}
+		
+		return -1;
+	}
+	
+	private long word(int index) {
+		return this.words.getLong(this.offset + index);
+	}
+	
+	/**
+	 * Sets the high bit of the bytes of a word that are zero. Only the
+	 * lowest one is exact, as the bytes above it may be set too.
+	 */
+	private static long zeros(long word) {
+		return (word - ONES) & ~word & HIGHS;
+	}
+	
+	/**
+	 * Returns the index of the lowest byte with the high bit set.
+	 */
+	private static int first(long found) {
+		return Long.numberOfTrailingZeros(found) >>> 3;
+	}
+}
@@ -0,0 +1,189 @@
+package lexical;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Process a code lexicographically, keeping its lines, the symbols of
+ * each line and if it begins inside a comment, so an edit only processes
+ * the edited lines again. The lines after them are processed again until
+ * one begins in the same commenting state as before, since from it on
+ * the symbols are the same, only moved some lines.
+ * The symbols are the same of {@link LexicalAnalyser#process(List)}, but
+ * their ids may differ, as the names of removed symbols are kept in the
+ * name table.
+ */
+public class IncrementalLexicalAnalyser
+{
+	private final List<String> lines;
+	private final TokenBuffer symbols = new TokenBuffer();
+	
+	// The number of lines at the beginning which symbols are known.
+	private int valid = 0;
+	// The number of symbols of each known line.
+	private int[] counts = new int[64];
+	// If each known line begins inside a comment, and the line after them.
+	private boolean[] commenting = new boolean[65];
+	
+	public IncrementalLexicalAnalyser(List<String> lines) {
+		this.lines = new ArrayList<>(lines);
+	}
+	
+	public List<String> getLines() {
+		return Collections.unmodifiableList(this.lines);
+	}
+	
+	/**
+	 * Processes the lines that are not known yet.
+	 * @return the list of symbols, which is updated by the next edits.
+	 * @throws LexicalException if the code is invalid.
+	 */
+	public TokenBuffer process()
+	{
+		LexicalAnalyser analyser = new LexicalAnalyser(this.symbols, this.valid, this.commenting[this.valid]);
+		
+		while (this.valid < this.lines.size())
+		{
+			int size = this.symbols.size();
+			
+			try {
+				analyser.processLine(this.lines.get(this.valid));
+			}
+			catch (LexicalException e) {
+				this.symbols.truncate(size);
+				throw e;
+			}
+			
+			ensureCapacity(this.valid + 1);
+			this.counts[this.valid] = this.symbols.size() - size;
+			this.commenting[++this.valid] = analyser.isCommenting();
+		}
+		
+		return analyser.done();
+	}
+	
+	/**
+	 * Applies edits to the lines, in order, and processes them.
+	 * @param edits the edits.
+	 * @return the list of symbols, which is updated by the next edits.
+	 * @throws LexicalException if the code is invalid.
+	 * @throws IndexOutOfBoundsException if an edit is out of the lines.
+	 */
+	public TokenBuffer process(List<LineEdit> edits)
+	{
+		for (LineEdit edit : edits) edit(edit);
+		return process();
+	}
+	
+	public TokenBuffer process(LineEdit... edits) {
+		return process(Arrays.asList(edits));
+	}
+	
+	/**
+	 * Applies an edit to the lines and processes the edited lines, and
+	 * the ones after them until the commenting state is the same as before.
+	 * If they are invalid, they are left to {@link #process()}.
+	 */
+	private void edit(LineEdit edit)
+	{
+		int line = edit.getLine();
+		int end = line + edit.getRemoved();
+		List<String> inserted = edit.getLines();
+		
+		if (line < 0 || end < line || end > this.lines.size())
+			throw new IndexOutOfBoundsException("Edit " + edit + ", lines " + this.lines.size());
+		
+		this.lines.subList(line, end).clear();
+		this.lines.addAll(line, inserted);
+		
+		if (line >= this.valid) return;
+		
+		if (end > this.valid) {
+			invalidate(line);
+			return;
+		}
+		
+		// The range of symbols of the removed lines, which grows with the
+		// lines after them that are processed again
+		int from = first(line);
+		int to = from;
+		for (int i = line; i < end; i++) to += this.counts[i];
+		
+		TokenBuffer symbols = new TokenBuffer(this.symbols.getNames());
+		LexicalAnalyser analyser = new LexicalAnalyser(symbols, line, this.commenting[line]);
+		
+		// The symbols and states of the lines processed again
+		int[] counts = new int[inserted.size() + 16];
+		boolean[] commenting = new boolean[counts.length + 1];
+		int processed = 0;
+		// The next line known before the edit
+		int next = end;
+		
+		try {
+			while (processed < inserted.size()
+					|| (next < this.valid && analyser.isCommenting() != this.commenting[next]))
+			{
+				if (processed >= inserted.size()) to += this.counts[next++];
+				
+				int size = symbols.size();
+				analyser.processLine(this.lines.get(line + processed));
+				
+				if (processed == counts.length)
+				{
+					counts = Arrays.copyOf(counts, counts.length * 2);
+					commenting = Arrays.copyOf(commenting, counts.length + 1);
+				}
+				
+				counts[processed] = symbols.size() - size;
+				commenting[++processed] = analyser.isCommenting();
+			}
+		}
+		catch (LexicalException e) {
+			invalidate(line);
+			return;
+		}
+		
+		int lines = inserted.size() - edit.getRemoved();
+		this.symbols.replace(from, to, symbols, lines);
+		
+		// Replaces the states of the lines processed again
+		ensureCapacity(this.valid + lines);
+		System.arraycopy(this.counts, next, this.counts, line + processed, this.valid - next);
+		System.arraycopy(this.commenting, next + 1, this.commenting, line + processed + 1, this.valid - next);
+		System.arraycopy(counts, 0, this.counts, line, processed);
+		System.arraycopy(commenting, 1, this.commenting, line + 1, processed);
+		
+		this.valid += lines;
+	}
+	
+	/**
+	 * Forgets the symbols from a line on.
+	 */
+	private void invalidate(int line)
+	{
+		this.symbols.truncate(first(line));
+		this.valid = line;
+	}
+	
+	/**
+	 * Returns the index of the first symbol of a known line.
+	 */
+	private int first(int line)
+	{
+		int first = 0;
+		for (int i = 0; i < line; i++) first += this.counts[i];
+		return first;
+	}
+	
+	private void ensureCapacity(int lines)
+	{
+		if (lines > this.counts.length)
+		{
+			int capacity = Math.max(lines, this.counts.length * 2);
+			this.counts = Arrays.copyOf(this.counts, capacity);
+			this.commenting = Arrays.copyOf(this.commenting, capacity + 1);
+		}
+	}
+}
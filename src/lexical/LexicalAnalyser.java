@@ -1,26 +1,90 @@
 package lexical;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
+import java.util.Map;
 
 /**
  * Process the a source code lexicographically.
+ * The lines are scanned one character at a time, breaking them into
+ * pieces separated by spaces and each piece into tokens, following the
+ * same order of preference of {@link Rules#GENERAL_PATTERN}.
  */
 public class LexicalAnalyser {
 	
-	private List<Symbol> symbols;
+	// The number of bytes of a file processed at once.
+	private static final int CHUNK_SIZE = 1 << 16;
+	
+	// Kinds of match found by the scanner.
+	private static final int COMMENT_OPEN = 0;
+	private static final int COMMENT_CLOSE = 1;
+	private static final int COMMENT_INLINE = 2;
+	private static final int TOKEN = 3;
+	
+	/**
+	 * The type of each reserved word by its fixed id in the name table.
+	 */
+	private static final TokenType[] RESERVED_WORDS;
+	
+	static {
+		NameTable names = new NameTable();
+		RESERVED_WORDS = new TokenType[names.size()];
+		
+		for (Map.Entry<String, TokenType> word : Rules.RESERVED_WORDS.entrySet())
+			RESERVED_WORDS[names.find(word.getKey())] = word.getValue();
+	}
+	
+	private TokenBuffer symbols;
+	private NameTable names;
 	// Indicates a comment opening symbol was found, but no comment
 	// closing symbol after it.
 	private boolean commenting = false;
 	// The current line.
 	private int at = 0;
+	// The index of the current line in the text.
+	private int lineStart;
+	
+	// The last match found by the scanner.
+	private int kind;
+	// The id of the token in the name table
+	private int token;
+	private TokenType type;
+	// Indicates the end of the piece was reached while looking for the
+	// last match, in which case the rest of the piece is taken as a
+	// single token, as java.util.regex.Matcher#hitEnd() does.
+	private boolean hitEnd;
 
 	/**
 	 * The constructor.
 	 */
 	public LexicalAnalyser() {
-		this.symbols = new ArrayList<>();
+		this(new TokenBuffer(), 0, false);
+	}
+	
+	/**
+	 * Creates an analyser that continues a code from a line.
+	 * @param symbols the buffer to add the symbols to.
+	 * @param at the number of lines before.
+	 * @param commenting if the line begins inside a comment.
+	 */
+	LexicalAnalyser(TokenBuffer symbols, int at, boolean commenting)
+	{
+		this.symbols = symbols;
+		this.names = symbols.getNames();
+		this.at = at;
+		this.commenting = commenting;
+	}
+	
+	LexicalAnalyser(int at, boolean commenting) {
+		this(new TokenBuffer(), at, commenting);
 	}
 
 	/**
@@ -28,8 +92,14 @@ public class LexicalAnalyser {
 	 * @param code the entire code.
 	 * @return itself.
 	 */
-	public LexicalAnalyser processCode(String code) {
-		return processLines(code.split("\n"));
+	public LexicalAnalyser processCode(String code)
+	{
+		int from = 0;
+		
+		for (int to; (to = code.indexOf('\n', from)) >= 0; from = to + 1)
+			processLine(code, from, to);
+		
+		return processLine(code, from, code.length());
 	}
 	
 	/**
@@ -37,8 +107,12 @@ public class LexicalAnalyser {
 	 * @param lines the list of lines.
 	 * @return itself.
 	 */
-	public LexicalAnalyser processLines(List<String> lines) {
-		return processLines(lines.toArray(new String[0]));
+	public LexicalAnalyser processLines(List<String> lines)
+	{
+		for (String line : lines)
+			processLine(line);
+		
+		return this;
 	}
 
 	/**
@@ -53,142 +127,518 @@ public class LexicalAnalyser {
 		
 		return this;
 	}
+	
+	/**
+	 * Process a file.
+	 * The file is mapped into memory and its bytes are processed without
+	 * being decoded while they are ASCII characters. They are copied in
+	 * chunks to a buffer, which only grows if a line doesn't fit in it.
+	 * Starting at the first line with a byte that's not ASCII, the rest of
+	 * the file is decoded as UTF-8. Lines end at '\n', '\r' or "\r\n", as
+	 * in {@link Files#readAllLines(Path)}.
+	 * @param path the file path.
+	 * @return itself.
+	 * @throws IOException if the file could not be read or is not UTF-8.
+	 */
+	public LexicalAnalyser processFile(Path path) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(path))
+		{
+			if (channel.size() > Integer.MAX_VALUE)
+				return processLines(Files.readAllLines(path, StandardCharsets.UTF_8));
+			
+			ByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			byte[] buffer = new byte[Math.min(file.limit(), CHUNK_SIZE)];
+			AsciiSequence text = new AsciiSequence(buffer);
+			
+			// The index of the current line in the buffer
+			int from = 0;
+			// The number of bytes in the buffer
+			int limit = 0;
+			boolean skipLineFeed = false;
+			
+			for (int i = 0; ; i++)
+			{
+				if (i == limit)
+				{
+					if (!file.hasRemaining()) break;
+					
+					// Moves the current line to the beginning of the buffer
+					if (from == 0 && limit == buffer.length) {
+						buffer = Arrays.copyOf(buffer, buffer.length * 2);
+						text = new AsciiSequence(buffer);
+					}
+					else System.arraycopy(buffer, from, buffer, 0, limit - from);
+					
+					i = limit -= from;
+					from = 0;
+					
+					int read = Math.min(file.remaining(), buffer.length - limit);
+					file.get(buffer, limit, read);
+					limit += read;
+				}
+				
+				byte b = buffer[i];
+				
+				if (skipLineFeed)
+				{
+					skipLineFeed = false;
+					
+					if (b == '\n') {
+						from = i + 1;
+						continue;
+					}
+				}
+				
+				// Skips to the next line break or byte that's not ASCII
+				if (b != '\n' && b != '\r' && b >= 0)
+				{
+					int next = text.indexOfLineBreak(i + 1, limit);
+					
+					if (next < 0) {
+						i = limit - 1;
+						continue;
+					}
+					
+					b = buffer[i = next];
+				}
+				
+				if (b == '\n' || b == '\r')
+				{
+					processLine(text, from, i);
+					skipLineFeed = b == '\r';
+					from = i + 1;
+				}
+				else if (b < 0)
+				{
+					// Not ASCII
+					file.position(file.position() - (limit - from));
+					return processLines(StandardCharsets.UTF_8.newDecoder().decode(file));
+				}
+			}
+			
+			if (from < limit) processLine(text, from, limit);
+			
+			return this;
+		}
+	}
+	
+	/**
+	 * Process the lines of a text, which end at '\n', '\r' or "\r\n".
+	 * @param text the text.
+	 * @return itself.
+	 */
+	private LexicalAnalyser processLines(CharSequence text)
+	{
+		int length = text.length();
+		int from = 0;
+		
+		for (int i = 0; i < length; i++)
+		{
+			char c = text.charAt(i);
+			
+			if (c == '\n' || c == '\r')
+			{
+				processLine(text, from, i);
+				
+				if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') i++;
+				from = i + 1;
+			}
+		}
+		
+		if (from < length) processLine(text, from, length);
+		
+		return this;
+	}
 
 	/**
 	 * Process a line.
 	 * @param line the line.
 	 * @return itself.
 	 */
-	public LexicalAnalyser processLine(String line)
+	public LexicalAnalyser processLine(String line) {
+		return processLine(line, 0, line.length());
+	}
+	
+	/**
+	 * Process a line delimited by a range of a text.
+	 * @param text the text.
+	 * @param from the index of the first character of the line.
+	 * @param to the index after the last character of the line.
+	 * @return itself.
+	 */
+	LexicalAnalyser processLine(CharSequence text, int from, int to)
 	{
 		this.at++;
+		this.lineStart = from;
 		
-		String[] tokens = line.split(" ");
-		for (String token : tokens)
+		int i = from;
+		while (i < to)
 		{
-			List<String> subTokens = processToken(token.trim());
-			for (String subToken : subTokens)
+			int start, end, next;
+				
+			// Ignores everything if it's commenting, unless it's a
+			// comment closing symbol.
+			if (commenting)
 			{
-				String lower = subToken.toLowerCase();
-				TokenType type = null;
-				
-				// Ignores everything if it's commenting, unless it's a
-				// comment closing symbol.
-				if (commenting) {
-					if (lower.equals(Rules.COMMENT_CLOSE))
-						commenting = false;
-				}
+				int close = indexOf(text, '}', i, to);
+				if (close < 0) break;
 				
-				else if (lower.equals(Rules.COMMENT_OPEN))
-					commenting = true;
+				commenting = false;
+				start = close + 1;
+				next = indexOf(text, ' ', close, to);
+				if (next < 0) next = to;
+			}
+			else
+			{
+				start = i;
+				next = indexOf(text, ' ', i, to);
+				
+				if (next == i) {
+					i++;
+					continue;
+				}
 				
-				else if (lower.equals(Rules.COMMENT_CLOSE))
-					throw new LexicalException("Closing comment without open, at " + at);
+				if (next < 0) next = to;
+				while (start < next && text.charAt(start) <= ' ') start++;
+			}
+			
+			end = next;
+			while (end > start && text.charAt(end - 1) <= ' ') end--;
+			
+			int stop = processPiece(text, start, end);
+			
+			// Ignores everything after an inline comment
+			if (stop < 0) break;
+			
+			i = commenting ? stop : next;
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Process a piece of a line, which has no spaces.
+	 * @param text the text.
+	 * @param from the index of the first character of the piece.
+	 * @param to the index after the last character of the piece.
+	 * @return the index after the comment opening symbol, if one is found,
+	 * 		-1 if an inline comment is found, or the end of the piece.
+	 */
+	private int processPiece(CharSequence text, int from, int to)
+	{
+		int last = from;
+		int i = from;
+		
+		while (i < to)
+		{
+			int end = -1;
+			
+			// Finds the next token
+			this.hitEnd = false;
+			while (i < to && (end = match(text, i, to)) < 0) i++;
+			if (end < 0) break;
+			
+			// It there is something that wasn't matched, it's a symbol
+			// that does not belong to the language and must be added to
+			// be recognized.
+			if (i > last) processUnmatched(text, last, i);
+			
+			if (this.kind == COMMENT_OPEN) {
+				commenting = true;
+				return end;
+			}
+			else if (this.kind == COMMENT_CLOSE)
+				throw new LexicalException("Closing comment without open, at " + at);
 				
-				else if (lower.equals(Rules.COMMENT_INLINE))
-					// Ignores everything after an inline comment
-					return this;
+			else if (this.kind == COMMENT_INLINE)
+				return -1;
 				
-				else if (lower.equals(Rules.ASSIGNMENT_COMMAND))
-					type = TokenType.AssignmentCommand;
+			this.symbols.add(this.token, this.type, at, i - this.lineStart, end - i);
+			last = i = end;
+			
+			if (this.hitEnd) break;
+		}
+		
+		// There's a string after the last token found.
+		if (last < to) processUnmatched(text, last, to);
+		
+		return to;
+	}
+	
+	/**
+	 * Matches a token starting at an index.
+	 * @param text the text.
+	 * @param i the index.
+	 * @param to the end of the piece.
+	 * @return the index after the token or -1 if none matches.
+	 */
+	private int match(CharSequence text, int i, int to)
+	{
+		char c = text.charAt(i);
+		
+		switch (c)
+		{
+		case '{': return special(COMMENT_OPEN, i + 1);
+		case '}': return special(COMMENT_CLOSE, i + 1);
+		case ';': return token(NameTable.SEMICOLON, TokenType.Delimiter, i + 1);
+		case '.': return token(NameTable.DOT, TokenType.Delimiter, i + 1);
+		case ',': return token(NameTable.COMMA, TokenType.Delimiter, i + 1);
+		case '(': return token(NameTable.OPEN_PARENTHESIS, TokenType.Delimiter, i + 1);
+		case ')': return token(NameTable.CLOSE_PARENTHESIS, TokenType.Delimiter, i + 1);
+		case '=': return token(NameTable.EQUAL, TokenType.RelationalOperator, i + 1);
+		case '+': return token(NameTable.PLUS, TokenType.AdditiveOperator, i + 1);
+		case '-': return token(NameTable.MINUS, TokenType.AdditiveOperator, i + 1);
+		case '*': return token(NameTable.TIMES, TokenType.MultiplicativeOperator, i + 1);
+		
+		case '/':
+			if (is(text, i + 1, to, '/')) return special(COMMENT_INLINE, i + 2);
+			return token(NameTable.DIVIDE, TokenType.MultiplicativeOperator, i + 1);
+		
+		case ':':
+			if (is(text, i + 1, to, '=')) return token(NameTable.ASSIGNMENT, TokenType.AssignmentCommand, i + 2);
+			return token(NameTable.COLON, TokenType.Delimiter, i + 1);
+		
+		case '<':
+			if (is(text, i + 1, to, '=')) return token(NameTable.LESS_EQUAL, TokenType.RelationalOperator, i + 2);
+			if (is(text, i + 1, to, '>')) return token(NameTable.DIFFERENT, TokenType.RelationalOperator, i + 2);
+			return token(NameTable.LESS, TokenType.RelationalOperator, i + 1);
+		
+		case '>':
+			if (is(text, i + 1, to, '=')) return token(NameTable.GREATER_EQUAL, TokenType.RelationalOperator, i + 2);
+			return token(NameTable.GREATER, TokenType.RelationalOperator, i + 1);
+		
+		// The logical operators are matched even as a prefix of a word
+		case 'a':
+			if (is(text, i + 1, to, 'n') && is(text, i + 2, to, 'd'))
+				return token(NameTable.AND, TokenType.LogicalOperator, i + 3);
+			break;
+		
+		case 'o':
+			if (is(text, i + 1, to, 'r'))
+				return token(NameTable.OR, TokenType.LogicalOperator, i + 2);
+			break;
+		}
+		
+		if (isDigit(c)) return matchNumber(text, i, to);
+		if (isLetter(c)) return matchWord(text, i, to);
+		
+		return -1;
+	}
+	
+	/**
+	 * Matches a complex, real or integer number.
+	 */
+	private int matchNumber(CharSequence text, int i, int to)
+	{
+		int digits = skipDigits(text, i, to);
+		
+		if (is(text, digits, to, 'i') && (is(text, digits + 1, to, '+') || is(text, digits + 1, to, '-')))
+		{
+			int end = skipDigits(text, digits + 2, to);
+			if (end > digits + 2) return token(text, i, end, TokenType.Complex);
+		}
+		
+		if (is(text, digits, to, '.'))
+		{
+			int end = skipDigits(text, digits + 1, to);
+			if (end > digits + 1) return token(text, i, end, TokenType.Real);
+		}
+		
+		return token(text, i, digits, TokenType.Integer);
+	}
+	
+	/**
+	 * Matches a reserved word or an identifier.
+	 */
+	private int matchWord(CharSequence text, int i, int to)
+	{
+		int end = i + 1;
+		while (end < to && isWordCharacter(text.charAt(end))) end++;
+		if (end == to) this.hitEnd = true;
+		
+		int word = this.names.intern(text, i, end);
+		TokenType type = word < RESERVED_WORDS.length ? RESERVED_WORDS[word] : null;
+		
+		return token(word, type == null ? TokenType.Identifier : type, end);
+	}
+	
+	/**
+	 * Process a string that was not matched by the scanner.
+	 * These are mostly symbols that do not belong to the language.
+	 * @throws LexicalException if the string does not belong to the language.
+	 */
+	private void processUnmatched(CharSequence text, int from, int to)
+	{
+		String token = text.subSequence(from, to).toString();
+		String lower = token.toLowerCase();
+		TokenType type = null;
+		
+		if (lower.equals(Rules.ASSIGNMENT_COMMAND))
+			type = TokenType.AssignmentCommand;
 				
-				else if (Rules.INTEGER_PATTERN.matcher(lower).matches())
-					type = TokenType.Integer;
+		else if (Rules.INTEGER_PATTERN.matcher(lower).matches())
+			type = TokenType.Integer;
 				
-				else if (Rules.REAL_PATTERN.matcher(lower).matches())
-					type = TokenType.Real;
+		else if (Rules.REAL_PATTERN.matcher(lower).matches())
+			type = TokenType.Real;
 				
-				else if (Rules.COMPLEX_PATTERN.matcher(lower).matches())
-					type = TokenType.Complex;
+		else if (Rules.COMPLEX_PATTERN.matcher(lower).matches())
+			type = TokenType.Complex;
 				
-				else if (Rules.BOOLEAN_VALUES.contains(lower))
-					type = TokenType.Boolean;
+		else if (Rules.BOOLEAN_VALUES.contains(lower))
+			type = TokenType.Boolean;
 				
-				else if (Rules.DELIMITERS.contains(lower))
-					type = TokenType.Delimiter;
+		else if (Rules.DELIMITERS.contains(lower))
+			type = TokenType.Delimiter;
 				
-				else if (Rules.OPERATORS_RELATIONAL.contains(lower))
-					type = TokenType.RelationalOperator;
+		else if (Rules.OPERATORS_RELATIONAL.contains(lower))
+			type = TokenType.RelationalOperator;
 				
-				else if (Rules.OPERATORS_ADDITIVE.contains(lower))
-					type = TokenType.AdditiveOperator;
+		else if (Rules.OPERATORS_ADDITIVE.contains(lower))
+			type = TokenType.AdditiveOperator;
 				
-				else if (Rules.OPERATORS_MULTIPLICATIVE.contains(lower))
-					type = TokenType.MultiplicativeOperator;
+		else if (Rules.OPERATORS_MULTIPLICATIVE.contains(lower))
+			type = TokenType.MultiplicativeOperator;
 				
-				else if (Rules.OPERATORS_LOGICAL.contains(lower))
-					type = TokenType.LogicalOperator;
+		else if (Rules.OPERATORS_LOGICAL.contains(lower))
+			type = TokenType.LogicalOperator;
 				
-				else if (Rules.KEY_WORDS.contains(lower))
-					type = TokenType.KeyWord;
+		else if (Rules.KEY_WORDS.contains(lower))
+			type = TokenType.KeyWord;
 				
-				else if (Rules.IDENTIFIER_PATTERN.matcher(lower).matches())
-					type = TokenType.Identifier;
+		else if (Rules.IDENTIFIER_PATTERN.matcher(lower).matches())
+			type = TokenType.Identifier;
 				
-				else throw new LexicalException("The symbol '" + subToken + "' does not belong to this language, at " + at);
+		else throw new LexicalException("The symbol '" + token + "' does not belong to this language, at " + at);
 				
-				if (type != null) this.symbols.add(new Symbol(lower, type, at));
-			}
-		}
+		this.symbols.add(lower, type, at, from - this.lineStart, to - from);
+	}
 		
-		return this;
+	// Match helpers
+	
+	private int special(int kind, int end) {
+		this.kind = kind;
+		return end;
+	}
+	
+	private int token(int token, TokenType type, int end)
+	{
+		this.kind = TOKEN;
+		this.token = token;
+		this.type = type;
+		return end;
+	}
+	
+	private int token(CharSequence text, int from, int to, TokenType type) {
+		return token(this.names.intern(text, from, to), type, to);
 	}
 	
 	/**
-	 * Process tokens.
-	 * This method receives a string without spaces and breaks
-	 * into simpler tokens.
-	 * @param token the token.
-	 * @return the list of tokens.
+	 * Checks if the character at an index is the given one.
+	 * Reaching the end of the piece is remembered.
 	 */
-	private List<String> processToken(String token)
+	private boolean is(CharSequence text, int i, int to, char c)
 	{
-		List<String> subTokens = new ArrayList<>();
-		Matcher matcher = Rules.GENERAL_PATTERN.matcher(token);
-		int lastIndex = 0;
-		
-		// Finds a separator
-		while (!matcher.hitEnd() && matcher.find())
-		{
-			// It there is something that wasn't catch by the 
-			// general pattern, it's a symbol that does not belong
-			// to the language and must be added to be recognized
-			// in the processor.
-			if (matcher.start() > lastIndex)
-				subTokens.add(token.substring(lastIndex, matcher.start()));
-			
-			subTokens.add(matcher.group());
-			lastIndex = matcher.end();
+		if (i >= to) {
+			this.hitEnd = true;
+			return false;
 		}
 		
-		// There's a string after the last substring found.
-		if (lastIndex < token.length())
-			subTokens.add(token.substring(lastIndex, token.length()));
+		return text.charAt(i) == c;
+	}
 		
-		return subTokens;
+	/**
+	 * Skips a sequence of digits.
+	 * Reaching the end of the piece is remembered.
+	 * @return the index after the last digit.
+	 */
+	private int skipDigits(CharSequence text, int i, int to)
+	{
+		while (i < to && isDigit(text.charAt(i))) i++;
+		if (i >= to) this.hitEnd = true;
+		return i;
+	}
+	
+	private static int indexOf(CharSequence text, char c, int from, int to)
+	{
+		if (text instanceof AsciiSequence)
+			return ((AsciiSequence) text).indexOf(c, from, to);
+		
+		for (int i = from; i < to; i++)
+			if (text.charAt(i) == c)
+				return i;
+		
+		return -1;
+	}
+	
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+	
+	private static boolean isLetter(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+	
+	private static boolean isWordCharacter(char c) {
+		return isLetter(c) || isDigit(c) || c == '_';
+	}
+	
+	/**
+	 * Returns the symbols processed so far, without checking if the code
+	 * is complete.
+	 */
+	TokenBuffer symbols() {
+		return this.symbols;
+	}
+	
+	/**
+	 * Returns the number of lines processed, including the ones before.
+	 */
+	int lines() {
+		return this.at;
+	}
+	
+	/**
+	 * Checks if the last line processed ended inside a comment.
+	 */
+	boolean isCommenting() {
+		return this.commenting;
 	}
 	
 	/**
 	 * Returns the list of symbols.
-	 * @return the list of symbols.
+	 * @return the list of symbols, stored in a {@link TokenBuffer}.
 	 * @throws LexicalException if a comment wasn't closed.
 	 */
-	public List<Symbol> done()
+	public TokenBuffer done()
 	{
 		if (this.commenting) throw new LexicalException("Comment not closed, at EOF");
 		return this.symbols;
 	}
 	
-	public static List<Symbol> process(String code) {
+	public static TokenBuffer process(String code) {
 		return new LexicalAnalyser().processCode(code).done();
 	}
 	
-	public static List<Symbol> process(String[] lines) {
+	public static TokenBuffer process(String[] lines) {
 		return new LexicalAnalyser().processLines(lines).done();
 	}
 	
-	public static List<Symbol> process(List<String> lines) {
+	public static TokenBuffer process(List<String> lines) {
 		return new LexicalAnalyser().processLines(lines).done();
 	}
 	
+	public static TokenBuffer process(Path path) throws IOException {
+		return new LexicalAnalyser().processFile(path).done();
+	}
+	
+	public static TokenStream stream(Reader reader) {
+		return new TokenStream(reader);
+	}
+
+	public static TokenStream stream(ReadableByteChannel channel) {
+		return new TokenStream(channel);
+	}
+	
 }
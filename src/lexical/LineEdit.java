@@ -0,0 +1,49 @@
+package lexical;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the replacement of a range of lines of a code by new ones.
+ */
+public class LineEdit
+{
+	private final int line;
+	private final int removed;
+	private final List<String> lines;
+	
+	/**
+	 * The constructor.
+	 * @param line the index of the first line replaced, starting at 0.
+	 * @param removed the number of lines replaced.
+	 * @param lines the new lines.
+	 */
+	public LineEdit(int line, int removed, List<String> lines)
+	{
+		this.line = line;
+		this.removed = removed;
+		this.lines = Collections.unmodifiableList(lines);
+	}
+	
+	public LineEdit(int line, int removed, String... lines) {
+		this(line, removed, Arrays.asList(lines));
+	}
+	
+	public int getLine() {
+		return this.line;
+	}
+	
+	public int getRemoved() {
+		return this.removed;
+	}
+	
+	public List<String> getLines() {
+		return this.lines;
+	}
+	
+	@Override
+	public String toString() {
+		return this.line + ": -" + this.removed + " +" + this.lines;
+	}
+}
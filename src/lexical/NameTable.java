@@ -0,0 +1,231 @@
+package lexical;
+
+import java.util.Arrays;
+
+/**
+ * Interns the spellings of the tokens.
+ * Each distinct spelling is given a small id, in the order they are
+ * found. The key words, boolean values, delimiters and operators have
+ * fixed ids, the same in every table, so they can be compared to the
+ * constants of this class.
+ */
+public class NameTable
+{
+	// Key words
+	public static final int PROGRAM = 0;
+	public static final int VAR = 1;
+	public static final int INTEGER = 2;
+	public static final int REAL = 3;
+	public static final int BOOLEAN = 4;
+	public static final int PROCEDURE = 5;
+	public static final int BEGIN = 6;
+	public static final int END = 7;
+	public static final int IF = 8;
+	public static final int THEN = 9;
+	public static final int ELSE = 10;
+	public static final int WHILE = 11;
+	public static final int DO = 12;
+	public static final int NOT = 13;
+	// Boolean values
+	public static final int TRUE = 14;
+	public static final int FALSE = 15;
+	// Delimiters
+	public static final int SEMICOLON = 16;
+	public static final int DOT = 17;
+	public static final int COLON = 18;
+	public static final int COMMA = 19;
+	public static final int OPEN_PARENTHESIS = 20;
+	public static final int CLOSE_PARENTHESIS = 21;
+	public static final int ASSIGNMENT = 22;
+	// Relational operators
+	public static final int LESS_EQUAL = 23;
+	public static final int GREATER_EQUAL = 24;
+	public static final int DIFFERENT = 25;
+	public static final int EQUAL = 26;
+	public static final int LESS = 27;
+	public static final int GREATER = 28;
+	// Additive operators
+	public static final int PLUS = 29;
+	public static final int MINUS = 30;
+	// Multiplicative operators
+	public static final int TIMES = 31;
+	public static final int DIVIDE = 32;
+	// Logical operators
+	public static final int AND = 33;
+	public static final int OR = 34;
+	
+	/**
+	 * The spellings of the fixed ids, in order.
+	 */
+	private static final String[] FIXED = {
+		"program", "var", "integer", "real", "boolean", "procedure", "begin", "end",
+		"if", "then", "else", "while", "do", "not", "true", "false",
+		";", ".", ":", ",", "(", ")", ":=",
+		"<=", ">=", "<>", "=", "<", ">", "+", "-", "*", "/", "and", "or"
+	};
+	
+	private String[] names = new String[64];
+	private int size = 0;
+	// Open addressing table with the id plus one of each name, or zero
+	// for an empty slot.
+	private int[] slots = new int[128];
+	
+	public NameTable()
+	{
+		for (String name : FIXED)
+			intern(name);
+	}
+	
+	/**
+	 * Returns the id of a name, adding it to the table if it's new.
+	 * @param name the name.
+	 * @return the id.
+	 */
+	public int intern(String name)
+	{
+		int slot = slot(name);
+		if (this.slots[slot] != 0) return this.slots[slot] - 1;
+		
+		return add(name, slot);
+	}
+	
+	/**
+	 * Returns the id of a range of a text, lower-cased, adding it to the
+	 * table if it's new. Only ASCII letters are lower-cased, and the name
+	 * is only created if it's not in the table yet.
+	 * @param text the text.
+	 * @param from the index of the first character of the name.
+	 * @param to the index after the last character of the name.
+	 * @return the id.
+	 */
+	public int intern(CharSequence text, int from, int to)
+	{
+		// The same as the hash code of the lower-cased string
+		int hash = 0;
+		for (int i = from; i < to; i++)
+			hash = 31 * hash + toLowerCase(text.charAt(i));
+		
+		int mask = this.slots.length - 1;
+		int slot = mix(hash) & mask;
+		
+		for (int id; (id = this.slots[slot]) != 0; slot = (slot + 1) & mask)
+		{
+			String name = this.names[id - 1];
+			if (name.hashCode() == hash && equals(name, text, from, to))
+				return id - 1;
+		}
+		
+		char[] name = new char[to - from];
+		for (int i = 0; i < name.length; i++)
+			name[i] = toLowerCase(text.charAt(from + i));
+		
+		return add(new String(name), slot);
+	}
+	
+	private int add(String name, int slot)
+	{
+		if (this.size == this.names.length)
+			this.names = Arrays.copyOf(this.names, this.size * 2);
+		
+		int id = this.size++;
+		this.names[id] = name;
+		this.slots[slot] = id + 1;
+		
+		if (this.size * 2 > this.slots.length) rehash();
+		
+		return id;
+	}
+	
+	/**
+	 * Returns the id of a name.
+	 * @param name the name.
+	 * @return the id or -1 if the name is not in the table.
+	 */
+	public int find(String name) {
+		return this.slots[slot(name)] - 1;
+	}
+	
+	/**
+	 * Returns the name of an id.
+	 * @param id the id.
+	 * @return the name.
+	 */
+	public String name(int id)
+	{
+		if (id >= this.size) throw new IndexOutOfBoundsException("Name " + id + ", size " + this.size);
+		return this.names[id];
+	}
+	
+	public int size() {
+		return this.size;
+	}
+	
+	public static boolean isTypeName(int id) {
+		return id >= INTEGER && id <= BOOLEAN;
+	}
+	
+	public static boolean isRelationalOperator(int id) {
+		return id >= LESS_EQUAL && id <= GREATER;
+	}
+	
+	public static boolean isAdditiveOperator(int id) {
+		return id == PLUS || id == MINUS;
+	}
+	
+	public static boolean isMultiplicativeOperator(int id) {
+		return id == TIMES || id == DIVIDE;
+	}
+	
+	public static boolean isLogicalOperator(int id) {
+		return id == AND || id == OR;
+	}
+	
+	/**
+	 * Returns the slot of a name, or the empty slot where it should be.
+	 */
+	private int slot(String name)
+	{
+		int mask = this.slots.length - 1;
+		int slot = mix(name.hashCode()) & mask;
+		
+		for (int id; (id = this.slots[slot]) != 0; slot = (slot + 1) & mask)
+			if (this.names[id - 1].equals(name))
+				break;
+		
+		return slot;
+	}
+	
+	private static boolean equals(String name, CharSequence text, int from, int to)
+	{
+		if (name.length() != to - from) return false;
+		
+		for (int i = from; i < to; i++)
+			if (name.charAt(i - from) != toLowerCase(text.charAt(i)))
+				return false;
+		
+		return true;
+	}
+	
+	private static char toLowerCase(char c) {
+		return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+	}
+	
+	private void rehash()
+	{
+		int[] slots = new int[this.slots.length * 2];
+		int mask = slots.length - 1;
+		
+		for (int id = 0; id < this.size; id++)
+		{
+			int slot = mix(this.names[id].hashCode()) & mask;
+			while (slots[slot] != 0) slot = (slot + 1) & mask;
+			slots[slot] = id + 1;
+		}
+		
+		this.slots = slots;
+	}
+	
+	private static int mix(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+}
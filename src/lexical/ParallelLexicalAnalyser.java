@@ -0,0 +1,192 @@
+package lexical;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Process a source code lexicographically in parallel.
+ * The code is split in chunks of whole lines, which are processed on a
+ * {@link ForkJoinPool}. The only state carried from a line to the next
+ * is whether it ends inside a comment, so each chunk is processed twice,
+ * starting outside and inside a comment, and the results are stitched in
+ * order, following the state the previous chunk ends at.
+ * The symbols, their lines and the exceptions thrown are the same of
+ * {@link LexicalAnalyser}.
+ */
+public class ParallelLexicalAnalyser
+{
+	// The approximate number of characters of each chunk.
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+	
+	private final ForkJoinPool pool;
+	private final int chunkSize;
+	
+	public ParallelLexicalAnalyser(ForkJoinPool pool, int chunkSize)
+	{
+		this.pool = pool;
+		this.chunkSize = Math.max(chunkSize, 1);
+	}
+	
+	public ParallelLexicalAnalyser() {
+		this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+	}
+	
+	/**
+	 * Processes a chunk of lines of a code.
+	 */
+	private interface Chunks {
+		void process(LexicalAnalyser analyser, int chunk);
+	}
+	
+	/**
+	 * Process an entire code, which lines end at '\n', as in
+	 * {@link LexicalAnalyser#processCode(String)}.
+	 * @param code the entire code.
+	 * @return the list of symbols.
+	 * @throws LexicalException if the code is invalid.
+	 */
+	public TokenBuffer process(String code)
+	{
+		// The index of the first character of each chunk, and the end
+		int[] bounds = new int[16];
+		int count = 0;
+		
+		for (int from = 0; ; )
+		{
+			if (count + 1 >= bounds.length) bounds = Arrays.copyOf(bounds, bounds.length * 2);
+			bounds[count++] = from;
+			
+			int next = from + this.chunkSize < code.length() ? code.indexOf('\n', from + this.chunkSize) : -1;
+			if (next < 0) break;
+			
+			from = next + 1;
+		}
+		
+		bounds[count] = code.length();
+		
+		int[] chunks = bounds;
+		int last = count - 1;
+		
+		return process(count, (analyser, chunk) -> {
+			int from = chunks[chunk];
+			int end = chunks[chunk + 1];
+			
+			for (int to; (to = code.indexOf('\n', from)) >= 0 && to < end; from = to + 1)
+				analyser.processLine(code, from, to);
+			
+			// Only the last line of the code doesn't end at '\n'
+			if (chunk == last) analyser.processLine(code, from, end);
+		});
+	}
+	
+	/**
+	 * Process a list of lines.
+	 * @param lines the list of lines.
+	 * @return the list of symbols.
+	 * @throws LexicalException if the code is invalid.
+	 */
+	public TokenBuffer process(List<String> lines)
+	{
+		// The index of the first line of each chunk, and the end
+		int[] bounds = new int[16];
+		int count = 0;
+		int length = 0;
+		
+		for (int i = 0; i < lines.size(); i++)
+		{
+			if (length == 0)
+			{
+				if (count + 1 >= bounds.length) bounds = Arrays.copyOf(bounds, bounds.length * 2);
+				bounds[count++] = i;
+			}
+			
+			length += lines.get(i).length() + 1;
+			if (length >= this.chunkSize) length = 0;
+		}
+		
+		bounds[count] = lines.size();
+		
+		int[] chunks = bounds;
+		
+		return process(count, (analyser, chunk) -> {
+			for (int i = chunks[chunk]; i < chunks[chunk + 1]; i++)
+				analyser.processLine(lines.get(i));
+		});
+	}
+	
+	private TokenBuffer process(int count, Chunks chunks)
+	{
+		// The analyser of each chunk starting outside and inside a comment,
+		// or null if the chunk is invalid
+		LexicalAnalyser[][] results = new LexicalAnalyser[count][2];
+		this.pool.invoke(new Task(chunks, results, 0, count));
+		
+		TokenBuffer symbols = new TokenBuffer();
+		LexicalAnalyser last = null;
+		boolean commenting = false;
+		int at = 0;
+		
+		for (int chunk = 0; chunk < count; chunk++)
+		{
+			last = results[chunk][commenting ? 1 : 0];
+			
+			if (last == null)
+			{
+				// Processes the chunk again from its actual line, throwing the
+				// same exception as the sequential analyser
+				chunks.process(new LexicalAnalyser(at, commenting), chunk);
+				throw new IllegalStateException("Chunk " + chunk + " is only invalid in parallel");
+			}
+			
+			symbols.addAll(last.symbols(), at);
+			at += last.lines();
+			commenting = last.isCommenting();
+		}
+		
+		if (last != null) last.done();
+		
+		return symbols;
+	}
+	
+	@SuppressWarnings("serial")
+	private static class Task extends RecursiveAction
+	{
+		private final Chunks chunks;
+		private final LexicalAnalyser[][] results;
+		private final int from;
+		private final int to;
+		
+		Task(Chunks chunks, LexicalAnalyser[][] results, int from, int to)
+		{
+			this.chunks = chunks;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if (this.to - this.from > 1)
+			{
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new Task(this.chunks, this.results, this.from, middle),
+						new Task(this.chunks, this.results, middle, this.to));
+				return;
+			}
+			
+			for (int state = 0; state < 2 && this.from < this.to; state++)
+			{
+				LexicalAnalyser analyser = new LexicalAnalyser(0, state == 1);
+				
+				try {
+					this.chunks.process(analyser, this.from);
+					this.results[this.from][state] = analyser;
+				}
+				catch (LexicalException e) { }
+			}
+		}
+	}
+}
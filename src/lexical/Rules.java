@@ -2,8 +2,10 @@ package lexical;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -32,6 +34,12 @@ public abstract class Rules
 	public static final Set<String> OPERATORS_MULTIPLICATIVE = new HashSet<String>();
 	public static final Set<String> OPERATORS_LOGICAL = new HashSet<String>();
 	
+	/**
+	 * The type of each reserved word, which are the words that are not
+	 * identifiers, such as key words, boolean values and logical operators.
+	 */
+	public static final Map<String, TokenType> RESERVED_WORDS = new HashMap<String, TokenType>();
+	
 	static {
 		String identifierPattern = "[a-zA-Z][\\w\\d]*";
 		String integerPattern = "\\d+";
@@ -60,6 +68,10 @@ public abstract class Rules
 		OPERATORS_MULTIPLICATIVE.addAll(multiplicativeOperators);
 		OPERATORS_LOGICAL.addAll(logicalOperators);
 		
+		for (String word : keyWords) RESERVED_WORDS.put(word, TokenType.KeyWord);
+		for (String word : logicalOperators) RESERVED_WORDS.put(word, TokenType.LogicalOperator);
+		for (String word : booleanValues) RESERVED_WORDS.put(word, TokenType.Boolean);
+		
 //		OPERATORS_ADDITIVE.add("or");
 //		OPERATORS_MULTIPLICATIVE.add("and");
 		
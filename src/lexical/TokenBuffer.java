@@ -0,0 +1,304 @@
+package lexical;
+
+import java.nio.IntBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Stores the tokens of a source code in parallel arrays.
+ * Each token takes the ordinal of its type, its line, its offset in
+ * the line, its length in the source and the id of its spelling in a
+ * {@link NameTable}. The {@link Symbol} of a token is only created when
+ * it's requested through {@link #get(int)}.
+ */
+public class TokenBuffer extends AbstractList<Symbol> implements RandomAccess
+{
+	private static final TokenType[] TYPES = TokenType.values();
+	
+	private final NameTable names;
+	
+	private int[] types;
+	private int[] lines;
+	private int[] offsets;
+	private int[] lengths;
+	private int[] ids;
+	private int size = 0;
+	
+	public TokenBuffer(NameTable names, int capacity)
+	{
+		this.names = names;
+		this.types = new int[capacity];
+		this.lines = new int[capacity];
+		this.offsets = new int[capacity];
+		this.lengths = new int[capacity];
+		this.ids = new int[capacity];
+	}
+	
+	public TokenBuffer(NameTable names) {
+		this(names, 64);
+	}
+	
+	public TokenBuffer() {
+		this(new NameTable());
+	}
+	
+	/**
+	 * Returns the tokens of a list of symbols.
+	 * @param symbols the symbols.
+	 * @return the list itself, if it's a buffer, or a buffer with a copy
+	 * 		of the symbols, with no offsets in the source.
+	 */
+	public static TokenBuffer of(List<Symbol> symbols)
+	{
+		if (symbols instanceof TokenBuffer) return (TokenBuffer) symbols;
+		
+		TokenBuffer buffer = new TokenBuffer(new NameTable(), Math.max(symbols.size(), 1));
+		for (Symbol symbol : symbols)
+			buffer.add(symbol.getToken(), symbol.getType(), symbol.getAt(), 0, symbol.getToken().length());
+		
+		return buffer;
+	}
+	
+	/**
+	 * Appends a token.
+	 * @param token the token, as stored in the symbol.
+	 * @param type the type.
+	 * @param at the line.
+	 * @param offset the index of the token in the line.
+	 * @param length the length of the token in the source.
+	 */
+	public void add(String token, TokenType type, int at, int offset, int length) {
+		add(this.names.intern(token), type, at, offset, length);
+	}
+	
+	/**
+	 * Appends a token already interned in the name table.
+	 * @param id the id of the token in the name table.
+	 * @param type the type.
+	 * @param at the line.
+	 * @param offset the index of the token in the line.
+	 * @param length the length of the token in the source.
+	 */
+	public void add(int id, TokenType type, int at, int offset, int length)
+	{
+		if (this.size == this.types.length) grow();
+		
+		this.types[this.size] = type.ordinal();
+		this.lines[this.size] = at;
+		this.offsets[this.size] = offset;
+		this.lengths[this.size] = length;
+		this.ids[this.size] = id;
+		this.size++;
+		this.modCount++;
+	}
+	
+	/**
+	 * Appends the tokens of another buffer, interning their names in the
+	 * name table of this one.
+	 * @param tokens the tokens.
+	 * @param lines the number of lines before the tokens.
+	 */
+	void addAll(TokenBuffer tokens, int lines)
+	{
+		int[] ids = new int[tokens.names.size()];
+		for (int id = 0; id < ids.length; id++)
+			ids[id] = this.names.intern(tokens.names.name(id));
+		
+		if (this.size + tokens.size > this.types.length) grow(this.size + tokens.size);
+		
+		System.arraycopy(tokens.types, 0, this.types, this.size, tokens.size);
+		System.arraycopy(tokens.offsets, 0, this.offsets, this.size, tokens.size);
+		System.arraycopy(tokens.lengths, 0, this.lengths, this.size, tokens.size);
+		
+		for (int i = 0; i < tokens.size; i++)
+		{
+			this.lines[this.size + i] = tokens.lines[i] + lines;
+			this.ids[this.size + i] = ids[tokens.ids[i]];
+		}
+		
+		this.size += tokens.size;
+		this.modCount++;
+	}
+	
+	/**
+	 * Writes the tokens to a buffer, as the types, lines, offsets, lengths
+	 * and ids of all tokens, in this order.
+	 * @param buffer the buffer.
+	 */
+	void write(IntBuffer buffer)
+	{
+		buffer.put(this.types, 0, this.size);
+		buffer.put(this.lines, 0, this.size);
+		buffer.put(this.offsets, 0, this.size);
+		buffer.put(this.lengths, 0, this.size);
+		buffer.put(this.ids, 0, this.size);
+	}
+	
+	/**
+	 * Reads tokens written by {@link #write(IntBuffer)}.
+	 * @param buffer the buffer.
+	 * @param size the number of tokens.
+	 * @param names the name table of the tokens.
+	 * @return the tokens.
+	 * @throws IllegalArgumentException if a type or id is invalid.
+	 */
+	static TokenBuffer read(IntBuffer buffer, int size, NameTable names)
+	{
+		TokenBuffer tokens = new TokenBuffer(names, Math.max(size, 1));
+		
+		buffer.get(tokens.types, 0, size);
+		buffer.get(tokens.lines, 0, size);
+		buffer.get(tokens.offsets, 0, size);
+		buffer.get(tokens.lengths, 0, size);
+		buffer.get(tokens.ids, 0, size);
+		
+		for (int i = 0; i < size; i++)
+			if (tokens.types[i] < 0 || tokens.types[i] >= TYPES.length
+					|| tokens.ids[i] < 0 || tokens.ids[i] >= names.size())
+				throw new IllegalArgumentException("Invalid token " + i);
+		
+		tokens.size = size;
+		return tokens;
+	}
+	
+	/**
+	 * Replaces a range of tokens by the tokens of another buffer with the
+	 * same name table, and moves the tokens after them some lines.
+	 * @param from the index of the first token replaced.
+	 * @param to the index after the last token replaced.
+	 * @param tokens the new tokens.
+	 * @param lines the number of lines to add to the tokens after them.
+	 */
+	void replace(int from, int to, TokenBuffer tokens, int lines)
+	{
+		int after = this.size - to;
+		int size = from + tokens.size + after;
+		
+		if (size > this.types.length) grow(size);
+		
+		for (int[] array : new int[][] { this.types, this.offsets, this.lengths, this.ids, this.lines })
+			System.arraycopy(array, to, array, from + tokens.size, after);
+		
+		System.arraycopy(tokens.types, 0, this.types, from, tokens.size);
+		System.arraycopy(tokens.offsets, 0, this.offsets, from, tokens.size);
+		System.arraycopy(tokens.lengths, 0, this.lengths, from, tokens.size);
+		System.arraycopy(tokens.ids, 0, this.ids, from, tokens.size);
+		System.arraycopy(tokens.lines, 0, this.lines, from, tokens.size);
+		
+		if (lines != 0)
+			for (int i = from + tokens.size; i < size; i++)
+				this.lines[i] += lines;
+		
+		this.size = size;
+		this.modCount++;
+	}
+	
+	/**
+	 * Removes the tokens after an index.
+	 * @param size the number of tokens kept.
+	 */
+	void truncate(int size)
+	{
+		this.size = Math.min(this.size, size);
+		this.modCount++;
+	}
+	
+	private void grow() {
+		grow(this.size + 1);
+	}
+	
+	private void grow(int minimum)
+	{
+		int capacity = Math.max(Math.max(this.types.length * 2, 16), minimum);
+		
+		this.types = Arrays.copyOf(this.types, capacity);
+		this.lines = Arrays.copyOf(this.lines, capacity);
+		this.offsets = Arrays.copyOf(this.offsets, capacity);
+		this.lengths = Arrays.copyOf(this.lengths, capacity);
+		this.ids = Arrays.copyOf(this.ids, capacity);
+	}
+	
+	private int check(int i)
+	{
+		if (i < 0 || i >= this.size)
+			throw new IndexOutOfBoundsException("Index " + i + ", size " + this.size);
+		
+		return i;
+	}
+	
+	public NameTable getNames() {
+		return this.names;
+	}
+	
+	public TokenType getType(int i) {
+		return TYPES[this.types[check(i)]];
+	}
+	
+	public int getAt(int i) {
+		return this.lines[check(i)];
+	}
+	
+	public int getOffset(int i) {
+		return this.offsets[check(i)];
+	}
+	
+	public int getLength(int i) {
+		return this.lengths[check(i)];
+	}
+	
+	/**
+	 * Returns the id of the token spelling in the name table.
+	 */
+	public int getId(int i) {
+		return this.ids[check(i)];
+	}
+	
+	/**
+	 * Copies the ids and the ordinals of the types of the tokens from an
+	 * index, as many as the arrays hold, so they're read without checking
+	 * each index.
+	 * @param from the index of the first token.
+	 * @param ids the array of the ids.
+	 * @param types the array of the ordinals of the types.
+	 * @return the number of tokens copied, fewer than the arrays hold after
+	 * 		the last one.
+	 */
+	public int copy(int from, int[] ids, int[] types)
+	{
+		int count = Math.min(Math.min(ids.length, types.length), this.size - check(from));
+		
+		System.arraycopy(this.ids, from, ids, 0, count);
+		System.arraycopy(this.types, from, types, 0, count);
+		
+		return count;
+	}
+	
+	public String getToken(int i) {
+		return this.names.name(getId(i));
+	}
+	
+	/**
+	 * Creates the symbol of a token.
+	 */
+	@Override
+	public Symbol get(int i) {
+		return new Symbol(getToken(i), getType(i), getAt(i));
+	}
+	
+	@Override
+	public int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Removes the tokens, keeping the name table.
+	 */
+	@Override
+	public void clear()
+	{
+		this.size = 0;
+		this.modCount++;
+	}
+}
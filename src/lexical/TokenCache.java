@@ -0,0 +1,195 @@
+package lexical;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Stores the symbols of source files in a directory, so files that did
+ * not change are not processed again.
+ * The symbols are stored in a binary file named by the SHA-256 hash of
+ * the bytes of the source, which is mapped into memory when loaded, and
+ * the token columns are copied from it in bulk.
+ * The file has a header with a magic number, the format version, the
+ * hash, the number of tokens and of names, followed by the columns of
+ * {@link TokenBuffer#write(java.nio.IntBuffer)} and the names, each one
+ * as its length and UTF-8 bytes.
+ */
+public class TokenCache
+{
+	private static final int MAGIC = 0x544F4B4E;
+	private static final int VERSION = 1;
+	private static final int HASH_SIZE = 32;
+	private static final int HEADER_SIZE = 4 + 4 + HASH_SIZE + 4 + 4;
+	// The number of columns of each token
+	private static final int COLUMNS = 5;
+	
+	private final Path directory;
+	
+	/**
+	 * The constructor.
+	 * @param directory the directory where the symbols are stored, which
+	 * 		is created if needed.
+	 */
+	public TokenCache(Path directory) {
+		this.directory = directory;
+	}
+	
+	/**
+	 * Returns the symbols of a file, stored if the file did not change, or
+	 * processed and stored otherwise.
+	 * @param source the source file.
+	 * @return the list of symbols.
+	 * @throws IOException if the source or the directory could not be read
+	 * 		or written.
+	 * @throws LexicalException if the source is invalid.
+	 */
+	public TokenBuffer process(Path source) throws IOException
+	{
+		byte[] hash = hash(source);
+		Path path = getPath(hash);
+		
+		TokenBuffer symbols = load(path, hash);
+		if (symbols != null) return symbols;
+		
+		symbols = LexicalAnalyser.process(source);
+		store(path, hash, symbols);
+		
+		return symbols;
+	}
+	
+	/**
+	 * Returns the file where the symbols of a source with a hash are stored.
+	 */
+	Path getPath(byte[] hash)
+	{
+		StringBuilder name = new StringBuilder();
+		for (byte b : hash) name.append(String.format("%02x", b));
+		
+		return this.directory.resolve(name.append(".tokens").toString());
+	}
+	
+	/**
+	 * Returns the SHA-256 hash of the bytes of a file.
+	 */
+	static byte[] hash(Path source) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(source))
+		{
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+			
+			while (channel.read(buffer) >= 0)
+			{
+				buffer.flip();
+				digest.update(buffer);
+				buffer.clear();
+			}
+			
+			return digest.digest();
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Loads stored symbols.
+	 * @return the symbols, or null if they are not stored or the file is
+	 * 		invalid.
+	 */
+	private static TokenBuffer load(Path path, byte[] hash) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(path))
+		{
+			ByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+					.order(ByteOrder.LITTLE_ENDIAN);
+			
+			if (file.getInt() != MAGIC || file.getInt() != VERSION) return null;
+			
+			byte[] stored = new byte[HASH_SIZE];
+			file.get(stored);
+			if (!Arrays.equals(stored, hash)) return null;
+			
+			int size = file.getInt();
+			int count = file.getInt();
+			
+			// The lengths are checked before allocating, so a corrupt one
+			// doesn't run out of memory, and each name takes 4 bytes at least
+			if (size < 0 || count < 0 || (long) size * COLUMNS * 4 > file.remaining()) return null;
+			
+			IntBuffer columns = file.asIntBuffer();
+			file.position(file.position() + size * COLUMNS * 4);
+			if (count > file.remaining() / 4) return null;
+			
+			// The names are interned in order, so they get the same ids
+			NameTable names = new NameTable();
+			for (int id = 0; id < count; id++)
+			{
+				int length = file.getInt();
+				if (length < 0 || length > file.remaining()) return null;
+				
+				byte[] name = new byte[length];
+				file.get(name);
+				
+				if (names.intern(new String(name, StandardCharsets.UTF_8)) != id) return null;
+			}
+			
+			return TokenBuffer.read(columns, size, names);
+		}
+		catch (NoSuchFileException | BufferUnderflowException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Stores symbols, replacing the file atomically.
+	 */
+	private void store(Path path, byte[] hash, TokenBuffer symbols) throws IOException
+	{
+		NameTable names = symbols.getNames();
+		byte[][] encoded = new byte[names.size()][];
+		long length = HEADER_SIZE + (long) symbols.size() * COLUMNS * 4;
+		
+		for (int id = 0; id < encoded.length; id++)
+		{
+			encoded[id] = names.name(id).getBytes(StandardCharsets.UTF_8);
+			length += 4 + encoded[id].length;
+		}
+		
+		// Too large to be mapped
+		if (length > Integer.MAX_VALUE) return;
+		
+		ByteBuffer file = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+		file.putInt(MAGIC).putInt(VERSION).put(hash).putInt(symbols.size()).putInt(encoded.length);
+		
+		IntBuffer columns = file.asIntBuffer();
+		symbols.write(columns);
+		file.position(file.position() + columns.position() * 4);
+		
+		for (byte[] name : encoded)
+			file.putInt(name.length).put(name);
+		
+		Files.createDirectories(this.directory);
+		Path temporary = Files.createTempFile(this.directory, "tokens", ".tmp");
+		
+		try {
+			Files.write(temporary, file.array());
+			Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+}
@@ -0,0 +1,280 @@
+package lexical;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Reads the symbols of a source code lazily by their index, keeping only
+ * the ones that may still be read in a ring buffer instead of all of them.
+ * The symbols up to {@link #LOOKBACK} positions behind the last one read
+ * from the source are kept. A position can be held to be read again later: while it's
+ * open, every symbol from it on is kept, and once it's limited to a span by
+ * {@link #keep(int)}, the symbols of the span are copied out of the buffer,
+ * so the ones after them can be released. {@link #rewind()} moves back to
+ * a held position, restoring its span to the buffer if it was released.
+ */
+public class TokenCursor
+{
+	/**
+	 * How many symbols behind the last one read from the source, or behind
+	 * a held position, are kept.
+	 */
+	public static final int LOOKBACK = 4;
+	
+	private final Iterator<Symbol> source;
+	private final NameTable names;
+	
+	private Symbol[] symbols;
+	private int[] ids;
+	// The index of the first symbol in the buffer and the one after the last
+	private int start = 0;
+	private int end = 0;
+	// The index of the next symbol of the source, which is after the end of
+	// the buffer if a rewind released the symbols between them
+	private int next = 0;
+	
+	// The first symbol kept by each hold and, once limited, the symbols of
+	// its span
+	private int[] holds = new int[16];
+	private Symbol[][] keptSymbols = new Symbol[16][];
+	private int[][] keptIds = new int[16][];
+	private int depth = 0;
+	
+	/**
+	 * The constructor.
+	 * @param source the symbols.
+	 * @param names the table where the spellings of the symbols are stored.
+	 * @param capacity the initial size of the buffer, which only grows when
+	 * 		the symbols held don't fit.
+	 */
+	public TokenCursor(Iterator<Symbol> source, NameTable names, int capacity)
+	{
+		int size = 1;
+		while (size < Math.max(capacity, 2 * LOOKBACK)) size <<= 1;
+		
+		this.source = source;
+		this.names = names;
+		this.symbols = new Symbol[size];
+		this.ids = new int[size];
+	}
+	
+	public TokenCursor(Iterator<Symbol> source) {
+		this(source, new NameTable(), 64);
+	}
+	
+	/**
+	 * Checks if there's a symbol at an index, reading the source up to it.
+	 * @throws IllegalStateException if the symbol was released.
+	 */
+	public boolean has(int i)
+	{
+		while (this.end <= i)
+		{
+			if (this.end < this.next)
+				throw new IllegalStateException("Symbol " + this.end + " was released");
+			
+			if (!this.source.hasNext()) return false;
+			
+			add(this.source.next());
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Returns the symbol at an index.
+	 * @throws IndexOutOfBoundsException if the source ends before it.
+	 * @throws IllegalStateException if the symbol was released.
+	 */
+	public Symbol get(int i)
+	{
+		int slot = slot(i);
+		if (slot >= 0) return this.symbols[slot];
+		
+		int hold = find(i);
+		return this.keptSymbols[hold][i - this.holds[hold]];
+	}
+	
+	/**
+	 * Returns the id of the spelling of the symbol at an index.
+	 * @see #get(int)
+	 */
+	public int getId(int i)
+	{
+		int slot = slot(i);
+		if (slot >= 0) return this.ids[slot];
+		
+		int hold = find(i);
+		return this.keptIds[hold][i - this.holds[hold]];
+	}
+	
+	public TokenType getType(int i) {
+		return get(i).getType();
+	}
+	
+	public int getAt(int i) {
+		return get(i).getAt();
+	}
+	
+	public NameTable getNames() {
+		return this.names;
+	}
+	
+	/**
+	 * Returns the size of the buffer.
+	 */
+	public int getCapacity() {
+		return this.symbols.length;
+	}
+	
+	/**
+	 * Holds a position, keeping every symbol from {@link #LOOKBACK} positions
+	 * behind it on until it's limited or released.
+	 * @throws IllegalStateException if the symbol was released.
+	 */
+	public void hold(int i)
+	{
+		if (i < this.start)
+			throw new IllegalStateException("Symbol " + i + " was released");
+		
+		if (this.depth == this.holds.length)
+		{
+			this.holds = Arrays.copyOf(this.holds, this.depth * 2);
+			this.keptSymbols = Arrays.copyOf(this.keptSymbols, this.depth * 2);
+			this.keptIds = Arrays.copyOf(this.keptIds, this.depth * 2);
+		}
+		
+		has(i);
+		this.holds[this.depth++] = Math.max(i - LOOKBACK, this.start);
+	}
+	
+	/**
+	 * Limits the last position held to the symbols up to an index, reading
+	 * the source up to it, and copying them out of the buffer.
+	 */
+	public void keep(int to)
+	{
+		has(to);
+		
+		int hold = this.depth - 1;
+		int from = this.holds[hold];
+		int length = Math.max(Math.min(to + 1, this.end) - from, 0);
+		
+		Symbol[] symbols = new Symbol[length];
+		int[] ids = new int[length];
+		
+		for (int j = 0; j < length; j++)
+		{
+			int slot = (from + j) & (this.symbols.length - 1);
+			symbols[j] = this.symbols[slot];
+			ids[j] = this.ids[slot];
+		}
+		
+		this.keptSymbols[hold] = symbols;
+		this.keptIds[hold] = ids;
+	}
+	
+	/**
+	 * Releases the last position held.
+	 */
+	public void release()
+	{
+		this.depth--;
+		this.keptSymbols[this.depth] = null;
+		this.keptIds[this.depth] = null;
+	}
+	
+	/**
+	 * Moves back to the last position held, so the symbols from
+	 * {@link #LOOKBACK} positions behind it can be read again.
+	 * If they were released, the span kept is restored to the buffer and the
+	 * symbols after it can't be read anymore.
+	 */
+	public void rewind()
+	{
+		int hold = this.depth - 1;
+		int from = this.holds[hold];
+		
+		if (from < this.start)
+		{
+			Symbol[] symbols = this.keptSymbols[hold];
+			
+			while (this.symbols.length < symbols.length) grow();
+			
+			for (int j = 0; j < symbols.length; j++)
+			{
+				int slot = (from + j) & (this.symbols.length - 1);
+				this.symbols[slot] = symbols[j];
+				this.ids[slot] = this.keptIds[hold][j];
+			}
+			
+			this.start = from;
+			this.end = from + symbols.length;
+		}
+	}
+	
+	private int slot(int i)
+	{
+		if (i < 0 || !has(i))
+			throw new IndexOutOfBoundsException("Index " + i + ", size " + this.end);
+		
+		if (i < this.start) return -1;
+		
+		return i & (this.symbols.length - 1);
+	}
+	
+	/**
+	 * Finds the last hold which kept a symbol released from the buffer.
+	 * @throws IllegalStateException if none did.
+	 */
+	private int find(int i)
+	{
+		for (int hold = this.depth - 1; hold >= 0; hold--)
+		{
+			Symbol[] symbols = this.keptSymbols[hold];
+			
+			if (symbols != null && i >= this.holds[hold] && i < this.holds[hold] + symbols.length)
+				return hold;
+		}
+		
+		throw new IllegalStateException("Symbol " + i + " was released");
+	}
+	
+	private void add(Symbol symbol)
+	{
+		if (this.end - this.start == this.symbols.length)
+		{
+			// Releases the symbols that can't be read anymore, or grows the
+			// buffer if all of them can, as the one being read is after them
+			int first = this.end - LOOKBACK;
+			
+			for (int hold = 0; hold < this.depth; hold++)
+				if (this.keptSymbols[hold] == null) first = Math.min(first, this.holds[hold]);
+			
+			if (first > this.start) this.start = first;
+			else grow();
+		}
+		
+		int slot = this.end & (this.symbols.length - 1);
+		this.symbols[slot] = symbol;
+		this.ids[slot] = this.names.intern(symbol.getToken());
+		this.end++;
+		this.next++;
+	}
+	
+	private void grow()
+	{
+		int capacity = this.symbols.length * 2;
+		Symbol[] symbols = new Symbol[capacity];
+		int[] ids = new int[capacity];
+		
+		for (int i = this.start; i < this.end; i++)
+		{
+			symbols[i & (capacity - 1)] = this.symbols[i & (this.symbols.length - 1)];
+			ids[i & (capacity - 1)] = this.ids[i & (this.symbols.length - 1)];
+		}
+		
+		this.symbols = symbols;
+		this.ids = ids;
+	}
+}
@@ -0,0 +1,184 @@
+package lexical;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Yields the symbols of a source code lazily.
+ * The code is read in chunks and processed line by line as the symbols
+ * are requested, so only the current chunk and the symbols of the current
+ * line are kept in memory. A line is never split between chunks: the buffer
+ * grows when a line is longer than it, so the commenting state of the
+ * analyser is carried from line to line as in {@link LexicalAnalyser}.
+ * Lines end at '\n', '\r' or "\r\n", as in {@link java.io.BufferedReader#readLine()}.
+ */
+public class TokenStream implements Iterator<Symbol>, Closeable
+{
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+	
+	private final Reader reader;
+	private final LexicalAnalyser analyser = new LexicalAnalyser();
+	
+	private char[] buffer;
+	private CharBuffer text;
+	// The index of the next line in the buffer.
+	private int position = 0;
+	// The index after the last character read into the buffer.
+	private int limit = 0;
+	// Indicates the last line ended with '\r', so a following '\n' is
+	// part of the same line break.
+	private boolean skipLineFeed = false;
+	private boolean endOfInput = false;
+	private boolean done = false;
+	
+	// The symbols of the last processed line and the next to be returned.
+	private TokenBuffer symbols;
+	private int next = 0;
+	
+	public TokenStream(Reader reader, int bufferSize)
+	{
+		this.reader = reader;
+		this.buffer = new char[Math.max(bufferSize, 1)];
+		this.text = CharBuffer.wrap(this.buffer);
+		this.symbols = this.analyser.symbols();
+	}
+	
+	public TokenStream(Reader reader) {
+		this(reader, DEFAULT_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Creates a stream from a channel of UTF-8 encoded bytes.
+	 * @param channel the channel.
+	 */
+	public TokenStream(ReadableByteChannel channel) {
+		this(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1));
+	}
+	
+	/**
+	 * Checks if there's another symbol, processing the next lines if needed.
+	 * @throws LexicalException if a line or the end of the code is invalid.
+	 * @throws UncheckedIOException if the code could not be read.
+	 */
+	@Override
+	public boolean hasNext()
+	{
+		while (this.next == this.symbols.size())
+		{
+			if (this.done) return false;
+			
+			this.symbols.clear();
+			this.next = 0;
+			
+			if (!processLine())
+			{
+				this.done = true;
+				this.analyser.done();
+			}
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public Symbol next()
+	{
+		if (!hasNext()) throw new NoSuchElementException();
+		return this.symbols.get(this.next++);
+	}
+	
+	@Override
+	public void close() throws IOException {
+		this.reader.close();
+	}
+	
+	/**
+	 * Processes the next line.
+	 * @return false if there are no more lines.
+	 */
+	private boolean processLine()
+	{
+		int end = position;
+		
+		while (true)
+		{
+			if (end == limit)
+			{
+				if (endOfInput)
+				{
+					// The last line has no line break
+					if (position == limit) return false;
+					
+					this.analyser.processLine(text, position, limit);
+					position = limit;
+					return true;
+				}
+				
+				end -= position;
+				fill();
+				continue;
+			}
+			
+			char c = buffer[end];
+			
+			if (skipLineFeed)
+			{
+				skipLineFeed = false;
+				
+				if (c == '\n' && end == position) {
+					end = ++position;
+					continue;
+				}
+			}
+			
+			if (c == '\n' || c == '\r')
+			{
+				this.analyser.processLine(text, position, end);
+				position = end + 1;
+				skipLineFeed = c == '\r';
+				return true;
+			}
+			
+			end++;
+		}
+	}
+	
+	/**
+	 * Moves the current line to the beginning of the buffer and reads more
+	 * characters after it, growing the buffer if the line fills it.
+	 */
+	private void fill()
+	{
+		int length = limit - position;
+		
+		if (length == buffer.length)
+		{
+			char[] grown = new char[buffer.length * 2];
+			System.arraycopy(buffer, position, grown, 0, length);
+			buffer = grown;
+			text = CharBuffer.wrap(buffer);
+		}
+		else System.arraycopy(buffer, position, buffer, 0, length);
+		
+		position = 0;
+		limit = length;
+		
+		try {
+			int read = reader.read(buffer, limit, buffer.length - limit);
+			
+			if (read < 0) endOfInput = true;
+			else limit += read;
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -1,10 +1,8 @@
 package semantic;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.Arrays;
 
+import lexical.NameTable;
 import lexical.Symbol;
 import lexical.TokenType;
 import syntactic.SyntacticListener;
@@ -15,36 +13,37 @@ public class SemanticAnalyser implements SyntacticListener
 	/**
 	 * Marks a scope beginning in the token stack.
 	 */
-	private static final String SCOPE = "$";
+	private static final int SCOPE = -1;
+	private static final TokenType[] TYPES = TokenType.values();
 	
 	/**
-	 * The token stack.
-	 * Stores the program identifier, procedures identifiers,
-	 * variables identifiers and marks scopes. 
+	 * The names of the identifiers.
+	 * The identifiers are stored and compared by their ids.
 	 */
-	private LinkedList<IndexedValue<String>> tokenStack = new LinkedList<>();
+	private NameTable names = new NameTable();
 	/**
-	 * The expression stack.
-	 * Stores types and operators.
+	 * The token stack, with the index of each token.
+	 * Stores the program identifier, procedures identifiers,
+	 * variables identifiers and marks scopes. 
 	 */
-	private LinkedList<IndexedValue<TokenType>> expressionStack = new LinkedList<>();
+	private int[] tokenStack = new int[64];
+	private int[] tokenIndexes = new int[64];
+	private int tokenCount = 0;
 	/**
-	 * The identifiers types.
-	 * Stores the type of an identifier as identifier key to type.
+	 * The expression stack, with the index of each type.
+	 * Stores the codes of the types of the operands not combined yet.
 	 */
-	private Map<String, TokenType> identifiersTypes = new HashMap<>();
+	private byte[] expressionStack = new byte[64];
+	private int[] expressionIndexes = new int[64];
+	private int expressionCount = 0;
 	/**
-	 * The procedures parameters.
-	 * Stores the list of types of parameters for each procedure
-	 * as procedure identifier key to list of types.
+	 * The identifiers declared in the open scopes, their types and the
+	 * types of the parameters of the procedures.
+	 * Finds the identifier visible by a name, without walking the token
+	 * stack.
 	 */
-	private Map<String, TokenType[]> proceduresParameters = new HashMap<>();
+	private SymbolTable symbols = new SymbolTable();
 	
-	/**
-	 * Indicates the depth of the scopes.
-	 * Used to generate the identifier key.
-	 */
-	private int scopeCount = 0;
 	/**
 	 * Counts the number of variables declared but with no type defined.
 	 * Used by {@link SemanticAnalyser#onTypeDefinition(int, Symbol)} as
@@ -54,17 +53,11 @@ public class SemanticAnalyser implements SyntacticListener
 	private int untypedVariables = 0;
 
 	/**
-	 * Indicates the last procedure declared or used.
+	 * Indicates the binding of the last procedure declared or used.
 	 * Used to create the list of parameters types and to validate the
 	 * types of the arguments.
 	 */
-	private String lastProcedureKey;
-	/**
-	 * Indicates the resultant type of the last expression.
-	 * Used to validate conditions of control statements and parameters
-	 * arguments.
-	 */
-	private TokenType lastExpressionType;
+	private int lastProcedure;
 	/**
 	 * Counts the number of procedure parameters been declared.
 	 * As any procedure parameter and variable are declared in the same
@@ -79,30 +72,6 @@ public class SemanticAnalyser implements SyntacticListener
 	private int procedureArgumentsCount;
 	
 	
-	/**
-	 * Generates an identifier key using the scope depth.
-	 * An identifier key is the concatenation of the scope depth, the
-	 * character '+' and the identifier, as depth+identifier.
-	 * It's needed to make the map of identifiers support variables of
-	 * equal names but different scopes depth.
-	 * @param name The identifier.
-	 * @param scope The scope depth.
-	 * @return The generated key.
-	 */
-	private String getIdentifierKey(String name, int scope) {
-		return String.format("%s+%s", scope, name);
-	}
-	
-	/**
-	 * Generates an identifier key for an identifier declared in the
-	 * current scope.
-	 * @param name The identifier.
-	 * @return The generated key.
-	 */
-	private String getIdentifierKey(String name) {
-		return getIdentifierKey(name, this.scopeCount);
-	}
-	
 	/**
 	 * Pushes a token to the stack.
 	 * The index 'i' of the token is used to ensure the location of
@@ -114,40 +83,49 @@ public class SemanticAnalyser implements SyntacticListener
 	 * indexes ahead. For this work, the methods
 	 * {@link #matchIndex(int)} and {@link #matchIndexAfter(int)}
 	 * are used.
-	 * @param token The token to store.
+	 * @param token The id of the token to store.
+	 * @param i The token index.
+	 */
+	private void pushToken(int i, int token)
+	{
+		if (this.tokenCount == this.tokenStack.length)
+		{
+			this.tokenStack = Arrays.copyOf(this.tokenStack, this.tokenCount * 2);
+			this.tokenIndexes = Arrays.copyOf(this.tokenIndexes, this.tokenCount * 2);
+		}
+		
+		this.tokenStack[this.tokenCount] = token;
+		this.tokenIndexes[this.tokenCount++] = i;
+	}
+	
+	/**
+	 * Pushes an identifier to the stack and declares it in the current
+	 * scope.
+	 * @param token The id of the identifier.
 	 * @param i The token index.
 	 */
-	private void pushToken(int i, String token) {
-		this.tokenStack.push(new IndexedValue<String>(i, token));
+	private void pushIdentifier(int i, int token)
+	{
+		pushToken(i, token);
+		this.symbols.declare(token);
 	}
 	
 	/**
 	 * Pops a token from the stack.
-	 * It controls the scope count, updating when any are removed,
-	 * and removes identifiers types, in case of identifiers, and also
-	 * procedure parameters types, when it'a procedure.
-	 * @return The removed token.
+	 * It closes the scope, in case of a scope mark, or removes the
+	 * identifier from the symbol table, with its type and the procedure
+	 * parameters types, when it'a procedure.
+	 * @return The id of the removed token.
 	 */
-	private String popToken()
+	private int popToken()
 	{
-		String token = this.tokenStack.pop().value;
+		int token = this.tokenStack[--this.tokenCount];
 		
-		if (token.equals(SCOPE)) {
-			this.scopeCount--;
+		if (token == SCOPE) {
+			this.symbols.exit();
 		}
-		else
-		{
-			String key = getIdentifierKey(token);
-			
-			if (this.identifiersTypes.containsKey(key))
-			{
-				// In case of a procedure, removes its parameters types
-				if (this.identifiersTypes.get(key) == TokenType.Procedure)
-					this.proceduresParameters.remove(key);
-				
-				// In case of an identifier, removes its type
-				this.identifiersTypes.remove(key);
-			}
+		else {
+			this.symbols.pop();
 		}
 		
 		return token;
@@ -156,33 +134,63 @@ public class SemanticAnalyser implements SyntacticListener
 	/**
 	 * Pushes a type to the expression stack.
 	 * The index i has the same utility as the
-	 * {@link SemanticAnalyser#pushToken(int, String)}.
+	 * {@link SemanticAnalyser#pushToken(int, int)}.
 	 * @param i The type index.
 	 * @param type The type.
 	 */
-	private void pushExpression(int i, TokenType type) {
-		this.expressionStack.push(new IndexedValue<TokenType>(i, type));
+	private void pushExpression(int i, TokenType type)
+	{
+		if (this.expressionCount == this.expressionStack.length)
+		{
+			this.expressionStack = Arrays.copyOf(this.expressionStack, this.expressionCount * 2);
+			this.expressionIndexes = Arrays.copyOf(this.expressionIndexes, this.expressionCount * 2);
+		}
+		
+		this.expressionStack[this.expressionCount] = (byte) type.ordinal();
+		this.expressionIndexes[this.expressionCount++] = i;
 		printExpressions(3);
 	}
 	
+	/**
+	 * Pops a type from the expression stack.
+	 * Its index is kept after the top, in {@link #expressionIndexes}.
+	 * @param symbol The symbol to report if the stack is empty.
+	 * @return The type.
+	 * @throws SemanticException if the stack is empty.
+	 */
+	private TokenType popExpression(Symbol symbol)
+	{
+		if (this.expressionCount == 0)
+			throw new SemanticException("Missing expression", symbol);
+		
+		return TYPES[this.expressionStack[--this.expressionCount]];
+	}
+	
 	/**
 	 * Parses a token to it's real type. 
-	 * @param token The token to parse.
+	 * @param token The id of the token to parse.
 	 * @return The type.
 	 */
-	private TokenType parseType(String token)
+	private TokenType parseType(int token)
 	{
 		switch (token)
 		{
-		case "integer": 	return TokenType.Integer;
-		case "real": 		return TokenType.Real;
-		case "boolean": 	return TokenType.Boolean;
-		case "program": 	return TokenType.Program;
-		case "procedure": 	return TokenType.Procedure;
-		default: 			return null;
+		case NameTable.INTEGER: 	return TokenType.Integer;
+		case NameTable.REAL: 		return TokenType.Real;
+		case NameTable.BOOLEAN: 	return TokenType.Boolean;
+		case NameTable.PROGRAM: 	return TokenType.Program;
+		case NameTable.PROCEDURE: 	return TokenType.Procedure;
+		default: 					return null;
 		}
 	}
 	
+	/**
+	 * Returns the id of the token of a symbol.
+	 */
+	private int getId(Symbol symbol) {
+		return this.names.intern(symbol.getToken());
+	}
+	
 	/**
 	 * Removes every token that is registered with an index greater than
 	 * the given one.
@@ -190,16 +198,24 @@ public class SemanticAnalyser implements SyntacticListener
 	 */
 	private void matchIndexAfter(int i)
 	{
-		int expressionStackSize = this.expressionStack.size();
+		int expressionCount = this.expressionCount;
+		
+		while (this.tokenCount > 0 && this.tokenIndexes[this.tokenCount - 1] > i) popToken();
+		
+		// The types are only truncated
+		while (this.expressionCount > 0 && this.expressionIndexes[this.expressionCount - 1] > i)
+			this.expressionCount--;
 		
-		while (!this.tokenStack.isEmpty() && this.tokenStack.peek().index > i) popToken();
-		while (!this.expressionStack.isEmpty() && this.expressionStack.peek().index > i)
+		if (expressionCount != this.expressionCount)
 		{
-			IndexedValue<TokenType> type = this.expressionStack.pop();
-			Log.d(3, "Pop " + type.value + ", its index " + type.index + " > " + i);
+			if (Log.DEBUG)
+			{
+				for (int k = expressionCount - 1; k >= this.expressionCount; k--)
+					Log.d(3, "Pop " + TYPES[this.expressionStack[k]] + ", its index " + this.expressionIndexes[k] + " > " + i);
+			}
+			
+			printExpressions(4);
 		}
-		
-		if (expressionStackSize != this.expressionStack.size()) printExpressions(4);
 	}
 	
 	/**
@@ -218,7 +234,7 @@ public class SemanticAnalyser implements SyntacticListener
 	public void onScopeBegin(int i, int line)
 	{
 		pushToken(i, SCOPE);
-		this.scopeCount++;
+		this.symbols.enter();
 	}
 
 	/**
@@ -228,8 +244,8 @@ public class SemanticAnalyser implements SyntacticListener
 	@Override
 	public void onScopeEnd(int i, int line)
 	{
-		while (!this.tokenStack.isEmpty())
-			if (popToken().equals(SCOPE))
+		while (this.tokenCount > 0)
+			if (popToken() == SCOPE)
 				return;
 		
 		throw new SemanticException("Closing a scope that wasn't openned", line);
@@ -243,41 +259,27 @@ public class SemanticAnalyser implements SyntacticListener
 	@Override
 	public void onProcedureDeclaration(int i, Symbol symbol)
 	{
-		Iterator<IndexedValue<String>> it = this.tokenStack.iterator();
-		while (it.hasNext())
-		{
-			String token = it.next().value;
-			
-			if (token.equals(symbol.getToken()))
-				throw new SemanticException("The procedure is already declared in this scope", symbol);
-			
-			else if (token.equals(SCOPE))
-				break;
-		}
+		int id = getId(symbol);
+		
+		if (this.symbols.isDeclared(id))
+			throw new SemanticException("The procedure is already declared in this scope", symbol);
 		
-		Log.d(2, "Procedure " + symbol.getToken());
-		pushToken(i, symbol.getToken());
+		if (Log.DEBUG) Log.d(2, "Procedure " + symbol.getToken());
+		pushIdentifier(i, id);
 		
-		this.lastProcedureKey = getIdentifierKey(symbol.getToken());
-		this.identifiersTypes.put(this.lastProcedureKey, TokenType.Procedure);
+		this.lastProcedure = this.symbols.size() - 1;
+		this.symbols.setType(this.lastProcedure, TokenType.Procedure);
 	}
 	
 	@Override
 	public void onVariableDeclaration(int i, Symbol symbol)
 	{
-		Iterator<IndexedValue<String>> it = this.tokenStack.iterator();
-		while (it.hasNext())
-		{
-			String token = it.next().value;
-			
-			if (token.equals(symbol.getToken()))
-				throw new SemanticException("The variable is already declared in this scope", symbol);
-			
-			else if (token.equals(SCOPE))
-				break;
-		}
+		int id = getId(symbol);
 		
-		pushToken(i, symbol.getToken());
+		if (this.symbols.isDeclared(id))
+			throw new SemanticException("The variable is already declared in this scope", symbol);
+		
+		pushIdentifier(i, id);
 		this.untypedVariables++; 
 		this.procedureParametersCount++;
 	}
@@ -285,15 +287,13 @@ public class SemanticAnalyser implements SyntacticListener
 	@Override
 	public void onTypeDefinition(int i, Symbol symbol)
 	{
-		TokenType type = parseType(symbol.getToken());
-		Iterator<IndexedValue<String>> it = this.tokenStack.iterator();
+		TokenType type = parseType(getId(symbol));
+		int binding = this.symbols.size();
 		
 		while (this.untypedVariables-- > 0)
 		{
-			String key = getIdentifierKey(it.next().value);
-			
-			this.identifiersTypes.put(key, type);
-			Log.d(2, "Variable " + key + " type " + type);
+			this.symbols.setType(--binding, type);
+			if (Log.DEBUG) Log.d(2, "Variable " + this.names.name(this.symbols.getName(binding)) + " type " + type);
 		}
 		
 		this.untypedVariables = 0;
@@ -304,30 +304,17 @@ public class SemanticAnalyser implements SyntacticListener
 	{
 		matchIndex(i);
 		
-		Iterator<IndexedValue<String>> it = this.tokenStack.iterator();
-		int scope = this.scopeCount; 
+		int binding = this.symbols.find(getId(symbol));
 		
-		while (it.hasNext())
-		{
-			String token = it.next().value;
-			
-			if (token.equals(SCOPE)) {
-				scope--;
-			}
-			else if (token.equals(symbol.getToken()))
-			{
-				String key = getIdentifierKey(symbol.getToken(), scope);
-				Log.d(2, "For procedure " + symbol.getToken() + " found identifier key " + key);
-				
-				if (this.identifiersTypes.get(key) != TokenType.Procedure)
-					throw new SemanticException("Using variable as procedure", symbol);
-				
-				this.lastProcedureKey = key;
-				return;
-			}
-		}
+		if (binding < 0)
+			throw new SemanticException("The procedure was not declared", symbol);
+		
+		if (Log.DEBUG) Log.d(2, "For procedure " + symbol.getToken() + " found depth " + this.symbols.getDepth(binding));
 		
-		throw new SemanticException("The procedure was not declared", symbol);
+		if (this.symbols.getType(binding) != TokenType.Procedure)
+			throw new SemanticException("Using variable as procedure", symbol);
+		
+		this.lastProcedure = binding;
 	}
 	
 	@Override
@@ -335,150 +322,65 @@ public class SemanticAnalyser implements SyntacticListener
 	{
 		matchIndex(i);
 		
-		Iterator<IndexedValue<String>> it = this.tokenStack.iterator();
-		int scope = this.scopeCount; 
+		int binding = this.symbols.find(getId(symbol));
 		
-		while (it.hasNext())
-		{
-			String token = it.next().value;
-			
-			if (token.equals(SCOPE)) {
-				scope--;
-			}
-			else if (token.equals(symbol.getToken()))
-			{
-				TokenType type = this.identifiersTypes.get(getIdentifierKey(symbol.getToken(), scope));
-
-				if (type == TokenType.Program)
-					throw new SemanticException("Using the program identifier as variable", symbol);
-				
-				if (type == TokenType.Procedure)
-					throw new SemanticException("Using procedure as variable", symbol);
-				
-				if (type == null)
-					throw new SemanticException("Unknown type variable", symbol);
-
-				Log.d(2, "Include " + type);
-				pushExpression(i, type);
-				return;
-			}
-		}
+		if (binding < 0)
+			throw new SemanticException("The variable was not declared", symbol);
+		
+		TokenType type = this.symbols.getType(binding);
+		
+		if (type == TokenType.Program)
+			throw new SemanticException("Using the program identifier as variable", symbol);
+		
+		if (type == TokenType.Procedure)
+			throw new SemanticException("Using procedure as variable", symbol);
+		
+		if (type == null)
+			throw new SemanticException("Unknown type variable", symbol);
 		
-		throw new SemanticException("The variable was not declared", symbol);
+		if (Log.DEBUG) Log.d(2, "Include " + type);
+		pushExpression(i, type);
 	}
 	
 	@Override
 	public void onValue(int i, Symbol symbol)
 	{
 		matchIndex(i);
-		Log.d(2, "Include " + symbol.getToken());
+		if (Log.DEBUG) Log.d(2, "Include " + symbol.getToken());
 		pushExpression(i, symbol.getType());
 	}
 	
+	/**
+	 * Combines the types of the two operands of an operator, from the top of
+	 * the expression stack, into the type of the operation.
+	 * An assignment only validates the type of the expression against the
+	 * type of the variable, and leaves no type.
+	 * @throws SemanticException if the operator doesn't support the types.
+	 */
 	@Override
-	public void onOperator(int i, Symbol symbol) {
-		onValue(i, symbol);
-	}
-	
-	@Override
-	public void onExpressionBegin(int i, Symbol symbol)
-	{
-		matchIndexAfter(i);
-		pushExpression(i, null);
-	}
-	
-	@Override
-	public void onExpressionEnd(int i, Symbol symbol)
+	public void onOperator(int i, Symbol symbol)
 	{
-		matchIndexAfter(i);
+		TokenType current = popExpression(symbol);
+		TokenType base = popExpression(symbol);
+		int index = this.expressionIndexes[this.expressionCount];
+		TokenType operator = symbol.getType();
 		
-		if (this.expressionStack.isEmpty())
-			throw new SemanticException("Ending expression that didn't start", symbol);
+		if (Log.DEBUG) Log.d(4, "Formed expression: " + base + " " + operator + " " + current);
 		
-		TokenType current = null;
-		TokenType operator = null;
+		// The types must be equal, unless a numeric value is assigned to
+		// a wider variable or operated with a wider value, and only the
+		// logical operators support the Boolean type
+		byte result = TypeTable.getResult(operator.ordinal(), base.ordinal(), current.ordinal());
 		
-		printExpressions(2);
+		if (result < TypeTable.NONE)
+			throw new SemanticException(TypeTable.getError(result), symbol);
 		
-		Iterator<IndexedValue<TokenType>> it = this.expressionStack.iterator();
-		while (it.hasNext())
-		{
-			TokenType base = it.next().value; it.remove();
-			
-			if (current == null) {
-				current = base;
-				Log.d(3, "Current: " + current);
-			}
-			else if (operator == null)
-			{
-				operator = base;
-				Log.d(3, "Operator: " + operator);
-				
-				// End of expression
-				if (base == null) break;
-			}
-			// Expression is formed
-			else
-			{
-				Log.d(4, "Formed expression: " + base + " " + operator + " " + current);
-				
-				if (operator == TokenType.AssignmentCommand)
-				{
-					// If types are equal, the result is the current type,
-					// otherwise it's Real
-					if (base != current)
-					{
-						Log.d(5, "Different types: " + base + " and " + current);
-						
-						// As the types are different:
-						// 	 - If base or current are Boolean, throw because boolean values
-						//			can only be in the same operation with another boolean
-						//			value;
-						//   - If base is Integer, throw because current is Real and it can
-						//			only be assigned to Real variables.
-						if (base == TokenType.Boolean || current == TokenType.Boolean
-								|| base == TokenType.Integer)
-							throw new SemanticException("Incompatible types are been assigned", symbol);
-						
-						current = TokenType.Real;
-					}
-				}
-				// Logical operations can only be applied to boolean values
-				// Its result is a boolean value, so the current value doesn't
-				// need to be changed
-				else if (operator == TokenType.LogicalOperator)
-				{
-					if (base != TokenType.Boolean || current != TokenType.Boolean)
-						throw new SemanticException("Incompatible types for logical operation", symbol);
-				}
-				
-				// No other operator supports the Boolean type
-				else if (base == TokenType.Boolean || current == TokenType.Boolean)
-					throw new SemanticException("Incompatible types in the same operation", symbol);
-					
-				// The result of a relational operation is a boolean value
-				else if (operator == TokenType.RelationalOperator)
-					current = TokenType.Boolean;
-				
-				// Additive or multiplicative operation
-				// If base is Real, current should be Real, but if base is Integer,
-				// current should be kept as is (Real or Integer)
-				else if (base == TokenType.Real)
-					current = TokenType.Real;
-				
-				operator = null;
-			}
-			
-			printExpressions(4);
+		if (result == TypeTable.NONE) {
+			printExpressions(3);
+			return;
 		}
 		
-		Log.d(3, "Expression result: " + current);
-		printExpressions(3);
-		
-		if (!this.expressionStack.isEmpty())
-			pushExpression(this.expressionStack.peek().index, current);
-		
-		this.lastExpressionType = current;
+		pushExpression(index, TYPES[result]);
 	}
 
 	@Override
@@ -493,26 +395,17 @@ public class SemanticAnalyser implements SyntacticListener
 	{
 		matchIndex(i);
 		
-		TokenType[] parameters = new TokenType[this.procedureParametersCount];
-		Iterator<IndexedValue<String>> it = this.tokenStack.iterator();
-		
-		while (this.procedureParametersCount-- > 0)
-		{
-			String key = getIdentifierKey(it.next().value);
-			parameters[this.procedureParametersCount] = this.identifiersTypes.get(key);
-		}
-		
-		this.proceduresParameters.put(this.lastProcedureKey, parameters);
+		this.symbols.setParameters(this.lastProcedure, this.procedureParametersCount);
 		
 		if (Log.DEBUG)
 		{
 			StringBuilder message = new StringBuilder()
 				.append("Procedure ")
-				.append(this.lastProcedureKey)
+				.append(this.names.name(this.symbols.getName(this.lastProcedure)))
 				.append(" parameters: ");
 			
-			for (TokenType type : parameters)
-				message.append(type + " ");
+			for (int k = 0; k < this.procedureParametersCount; k++)
+				message.append(this.symbols.getParameter(this.lastProcedure, k) + " ");
 			
 			Log.d(2, message.toString());
 		}
@@ -530,7 +423,7 @@ public class SemanticAnalyser implements SyntacticListener
 	{
 		matchIndex(i);
 		
-		int expectedCount = this.proceduresParameters.get(this.lastProcedureKey).length;
+		int expectedCount = this.symbols.getParameterCount(this.lastProcedure);
 		
 		if (expectedCount != this.procedureArgumentsCount)
 			throw new SemanticException("Invalid number of arguments", symbol);
@@ -541,27 +434,26 @@ public class SemanticAnalyser implements SyntacticListener
 	{
 		matchIndex(i);
 		
-		Log.d(2, "Procedure " + this.lastProcedureKey + " count " + this.procedureArgumentsCount
-				+ " expression " + this.lastExpressionType);
+		TokenType type = popExpression(symbol);
 		
-		TokenType[] parameters = this.proceduresParameters.get(this.lastProcedureKey);
+		if (Log.DEBUG) Log.d(2, "Procedure " + this.names.name(this.symbols.getName(this.lastProcedure))
+				+ " count " + this.procedureArgumentsCount + " expression " + type);
 		
-		if (this.procedureArgumentsCount == parameters.length)
+		if (this.procedureArgumentsCount == this.symbols.getParameterCount(this.lastProcedure))
 			throw new SemanticException("Invalid number of arguments", symbol);
 		
-		TokenType expectedType = parameters[this.procedureArgumentsCount++]; 
+		TokenType expectedType = this.symbols.getParameter(this.lastProcedure, this.procedureArgumentsCount++);
 		
-		Log.d(2, "Comparing types: expected " + expectedType + ", found " + this.lastExpressionType);
+		if (Log.DEBUG) Log.d(2, "Comparing types: expected " + expectedType + ", found " + type);
 		
-		if ((expectedType != TokenType.Real || this.lastExpressionType != TokenType.Integer)
-				&& expectedType != this.lastExpressionType)
+		if ((expectedType != TokenType.Real || type != TokenType.Integer) && expectedType != type)
 			throw new SemanticException("Invalid argument type", symbol);
 	}
 
 	@Override
 	public void onControlCondition(int i, Symbol symbol)
 	{
-		if (this.lastExpressionType != TokenType.Boolean)
+		if (popExpression(symbol) != TokenType.Boolean)
 			throw new SemanticException("Expression result for control statement isn't boolean", symbol);
 	}
 	
@@ -569,7 +461,7 @@ public class SemanticAnalyser implements SyntacticListener
 	{
 		if (!Log.DEBUG) return;
 		
-		if (this.expressionStack.isEmpty()) {
+		if (this.expressionCount == 0) {
 			Log.d(tabs, "Expression stack: --");
 			return;
 		}
@@ -577,14 +469,10 @@ public class SemanticAnalyser implements SyntacticListener
 		StringBuilder message = new StringBuilder();
 		message.append("Expression stack: ");
 		
-		Iterator<IndexedValue<TokenType>> it = this.expressionStack.descendingIterator();
-		while (it.hasNext())
-		{
-			IndexedValue<TokenType> val = it.next();
-			message.append(val.value + " ");
-		}
+		for (int k = 0; k < this.expressionCount; k++)
+			message.append(TYPES[this.expressionStack[k]] + " ");
 		
-		message.append("(").append(this.expressionStack.peek().index).append(")");
+		message.append("(").append(this.expressionIndexes[this.expressionCount - 1]).append(")");
 		
 		Log.d(tabs, message.toString());
 	}
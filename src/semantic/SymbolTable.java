@@ -0,0 +1,180 @@
+package semantic;
+
+import java.util.Arrays;
+
+import lexical.TokenType;
+
+/**
+ * The identifiers declared in the open scopes, as a stack of bindings of
+ * a name id to the depth of its scope and its type.
+ * Each name refers to its last binding, which refers to the one it shadows,
+ * so an identifier is found without walking the scopes, and a binding is
+ * removed by restoring the one it shadowed.
+ * The types are kept as byte codes, and so are the types of the parameters
+ * of a procedure, in its binding.
+ */
+public class SymbolTable
+{
+	private static final int NONE = -1;
+	private static final TokenType[] TYPES = TokenType.values();
+	
+	// The bindings, by their order of declaration
+	private int[] names = new int[64];
+	private int[] depths = new int[64];
+	private byte[] types = new byte[64];
+	private byte[][] parameters = new byte[64][];
+	private int[] shadowed = new int[64];
+	private int size = 0;
+	
+	/**
+	 * The last binding of each name id, or {@link #NONE}.
+	 */
+	private int[] last = new int[64];
+	private int depth = 0;
+	
+	public SymbolTable() {
+		Arrays.fill(this.last, NONE);
+	}
+	
+	/**
+	 * Returns the depth of the innermost scope, which is 0 outside of
+	 * any scope.
+	 */
+	public int getDepth() {
+		return this.depth;
+	}
+	
+	/**
+	 * Opens a scope, in which the identifiers are declared from now on.
+	 */
+	public void enter() {
+		this.depth++;
+	}
+	
+	/**
+	 * Closes the innermost scope, removing the bindings declared in it.
+	 */
+	public void exit()
+	{
+		while (this.size > 0 && this.depths[this.size - 1] == this.depth) pop();
+		this.depth--;
+	}
+	
+	/**
+	 * Declares a name in the innermost scope, with no type, shadowing any
+	 * binding of it in the outer scopes.
+	 * @param name The name id.
+	 */
+	public void declare(int name)
+	{
+		if (this.size == this.names.length)
+		{
+			int capacity = this.size * 2;
+			this.names = Arrays.copyOf(this.names, capacity);
+			this.depths = Arrays.copyOf(this.depths, capacity);
+			this.types = Arrays.copyOf(this.types, capacity);
+			this.parameters = Arrays.copyOf(this.parameters, capacity);
+			this.shadowed = Arrays.copyOf(this.shadowed, capacity);
+		}
+		
+		if (name >= this.last.length)
+		{
+			int length = this.last.length;
+			this.last = Arrays.copyOf(this.last, Math.max(name + 1, length * 2));
+			Arrays.fill(this.last, length, this.last.length, NONE);
+		}
+		
+		this.names[this.size] = name;
+		this.depths[this.size] = this.depth;
+		this.types[this.size] = NONE;
+		this.shadowed[this.size] = this.last[name];
+		this.last[name] = this.size++;
+	}
+	
+	/**
+	 * Removes the last binding declared.
+	 */
+	public void pop()
+	{
+		int binding = --this.size;
+		this.last[this.names[binding]] = this.shadowed[binding];
+		this.parameters[binding] = null;
+	}
+	
+	/**
+	 * Returns the binding of a name visible in the innermost scope, or -1
+	 * if it isn't declared.
+	 * @param name The name id.
+	 */
+	public int find(int name) {
+		return name < this.last.length ? this.last[name] : NONE;
+	}
+	
+	/**
+	 * Returns if a name is declared in the innermost scope, which is the
+	 * one of its visible binding.
+	 * @param name The name id.
+	 */
+	public boolean isDeclared(int name)
+	{
+		int binding = find(name);
+		return binding >= 0 && this.depths[binding] == this.depth;
+	}
+	
+	/**
+	 * Returns the number of bindings, the last one being the last declared.
+	 */
+	public int size() {
+		return this.size;
+	}
+	
+	public int getName(int binding) {
+		return this.names[binding];
+	}
+	
+	/**
+	 * Returns the depth of the scope where a binding was declared.
+	 */
+	public int getDepth(int binding) {
+		return this.depths[binding];
+	}
+	
+	/**
+	 * Returns the type of a binding, or null if it wasn't defined.
+	 */
+	public TokenType getType(int binding) {
+		return this.types[binding] == NONE ? null : TYPES[this.types[binding]];
+	}
+	
+	public void setType(int binding, TokenType type) {
+		this.types[binding] = type == null ? NONE : (byte) type.ordinal();
+	}
+	
+	/**
+	 * Defines the parameters of a procedure as the last bindings declared,
+	 * with their types.
+	 * @param binding The binding of the procedure.
+	 * @param count The number of parameters.
+	 */
+	public void setParameters(int binding, int count) {
+		this.parameters[binding] = Arrays.copyOfRange(this.types, this.size - count, this.size);
+	}
+	
+	/**
+	 * Returns the number of parameters of a procedure.
+	 * @throws NullPointerException if they weren't defined.
+	 */
+	public int getParameterCount(int binding) {
+		return this.parameters[binding].length;
+	}
+	
+	/**
+	 * Returns the type of a parameter of a procedure, or null if it wasn't
+	 * defined.
+	 */
+	public TokenType getParameter(int binding, int parameter)
+	{
+		byte type = this.parameters[binding][parameter];
+		return type == NONE ? null : TYPES[type];
+	}
+}
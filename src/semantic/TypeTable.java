@@ -0,0 +1,118 @@
+package semantic;
+
+import java.util.Arrays;
+
+import lexical.TokenType;
+
+/**
+ * The result type of each operator by the types of its operands, or the
+ * error of the operation.
+ * The numeric types are ordered by widening, from Integer to Real to
+ * Complex, so an arithmetic operation results in the wider of its operands,
+ * and a value is assigned to a variable of its type or of a wider one.
+ * Boolean values are only combined by logical operators.
+ * The table is built once, so an operation is checked by a single lookup.
+ */
+public class TypeTable
+{
+	/**
+	 * The result of an operation that leaves no type, as an assignment.
+	 */
+	public static final byte NONE = -1;
+	public static final byte INCOMPATIBLE_ASSIGNMENT = -2;
+	public static final byte INCOMPATIBLE_LOGICAL = -3;
+	public static final byte INCOMPATIBLE_OPERATION = -4;
+	
+	private static final String[] ERRORS = {
+		"Incompatible types are been assigned",
+		"Incompatible types for logical operation",
+		"Incompatible types in the same operation"
+	};
+	
+	private static final TokenType[] TYPES = TokenType.values();
+	private static final int SIZE = TYPES.length;
+	
+	/**
+	 * The numeric types, from the narrowest.
+	 */
+	private static final TokenType[] NUMERIC = { TokenType.Integer, TokenType.Real, TokenType.Complex };
+	
+	/**
+	 * The results by the codes of the operator, the left and the right
+	 * operand types.
+	 */
+	private static final byte[] RESULTS = new byte[SIZE * SIZE * SIZE];
+	
+	static
+	{
+		Arrays.fill(RESULTS, INCOMPATIBLE_OPERATION);
+		
+		for (TokenType base : TYPES)
+		{
+			for (TokenType current : TYPES)
+			{
+				int baseRank = rank(base);
+				int currentRank = rank(current);
+				
+				boolean assignable = base == current || currentRank >= 0 && currentRank <= baseRank;
+				set(TokenType.AssignmentCommand, base, current, assignable ? NONE : INCOMPATIBLE_ASSIGNMENT);
+				
+				boolean logical = base == TokenType.Boolean && current == TokenType.Boolean;
+				set(TokenType.LogicalOperator, base, current, logical ? code(TokenType.Boolean) : INCOMPATIBLE_LOGICAL);
+				
+				if (baseRank >= 0 && currentRank >= 0)
+				{
+					byte wider = code(NUMERIC[Math.max(baseRank, currentRank)]);
+					
+					set(TokenType.RelationalOperator, base, current, code(TokenType.Boolean));
+					set(TokenType.AdditiveOperator, base, current, wider);
+					set(TokenType.MultiplicativeOperator, base, current, wider);
+				}
+			}
+		}
+	}
+	
+	private TypeTable() {}
+	
+	private static byte code(TokenType type) {
+		return (byte) type.ordinal();
+	}
+	
+	private static void set(TokenType operator, TokenType base, TokenType current, byte result) {
+		RESULTS[(operator.ordinal() * SIZE + base.ordinal()) * SIZE + current.ordinal()] = result;
+	}
+	
+	/**
+	 * Returns the position of a type in the widening of the numeric types,
+	 * or -1 if it isn't numeric.
+	 */
+	private static int rank(TokenType type)
+	{
+		for (int k = 0; k < NUMERIC.length; k++)
+			if (NUMERIC[k] == type) return k;
+		
+		return -1;
+	}
+	
+	/**
+	 * Returns the result of an operation, which is the code of its type,
+	 * {@link #NONE}, or an error code, lower than it.
+	 * @param operator The code of the operator type.
+	 * @param base The code of the left operand type.
+	 * @param current The code of the right operand type.
+	 */
+	public static byte getResult(int operator, int base, int current) {
+		return RESULTS[(operator * SIZE + base) * SIZE + current];
+	}
+	
+	public static byte getResult(TokenType operator, TokenType base, TokenType current) {
+		return getResult(operator.ordinal(), base.ordinal(), current.ordinal());
+	}
+	
+	/**
+	 * Returns the message of an error code.
+	 */
+	public static String getError(byte result) {
+		return ERRORS[NONE - result - 1];
+	}
+}
@@ -0,0 +1,380 @@
+package syntactic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The table of a grammar compiled into states, so a token is matched by a
+ * single action of its state and its terminal, which expands the rules it
+ * begins, fires the events before it and pushes the states to return to at
+ * once.
+ * Each state is the position of an item in a production and the positions
+ * it returns to after it, up to a few of them, so most of the returns of
+ * the rules that end without matching a token are found when the table is
+ * compiled, and only the other positions are pushed. A position isn't
+ * returned to when its production has nothing left.
+ * A cell with a conflict pushes a choice, so the analyser may go back to
+ * the other production of the cell until the one it chose is matched.
+ * The states are referred to by the offset of their row in the table.
+ */
+class Automaton
+{
+	// The positions of the bottom of the stack, after the start rule, of the
+	// choices on the stack, and the first one, which are also the first states
+	static final int ACCEPT = 0;
+	static final int CUT = 1;
+	static final int BEGIN = 2;
+	
+	// The actions that aren't the state to go to after matching the token:
+	// returning to the state on the stack without matching it or after it,
+	// and the complex ones, from COMPLEX down
+	static final int POP = -1;
+	static final int RETURN = -2;
+	static final int COMPLEX = -3;
+	
+	// What a complex action does after its events and pushes, if it doesn't
+	// go to a state or return: failing, ending the analysis or dropping the
+	// choice on the top of the stack and returning
+	static final int FAIL = -3;
+	static final int STOP = -4;
+	static final int DROP = -5;
+	
+	// The most positions a state returns to, and the longest chain of items
+	// an action expands
+	private static final int DEPTH = 4;
+	private static final int LIMIT = 1024;
+	
+	private final Grammar grammar;
+	
+	// The item of each position, and if it's the last one of its production
+	private final int[] items;
+	private final boolean[] lasts;
+	// The first position of each production, or POP if it's empty
+	private final int[] firsts;
+	// The most positions a state returns to, which is none if an event is
+	// fired from the first token of its group, as the index of that token is
+	// pushed with each position
+	private final int depth;
+	
+	// The position of each state and the ones it returns to, from the last
+	// one, and the state of each of them
+	private final List<int[]> states = new ArrayList<>();
+	private final Map<List<Integer>, Integer> indexes = new HashMap<>();
+	
+	final int width;
+	// The action of each state by each terminal
+	int[] actions;
+	
+	// Of each complex action: the events it fires and the states it pushes,
+	// each one shifted left with whether its group began before the action,
+	// the state each choice pushed goes back to, or POP if it's empty, the
+	// state it goes to, shifted as the pushed ones, or what it does, and the
+	// item it fails at, or -1 if it's after the end of the program
+	int[][] events;
+	int[][] pushes;
+	int[][] resumes;
+	int[] nexts;
+	int[] errors;
+	private int count = 0;
+	// The action failing at each item, added once, or 0
+	private final int[] failures;
+	
+	// The positions of the action being compiled, shifted as the pushed
+	// ones, with the position and the number of events of each choice, and
+	// its events
+	private final int[] stack = new int[LIMIT];
+	private final int[] stackResumes = new int[LIMIT];
+	private final int[] stackEvents = new int[LIMIT];
+	private final int[] fired = new int[LIMIT];
+	
+	/**
+	 * Compiles the table of a grammar for its productions, as the ones of
+	 * {@link Grammar#productions(int)}.
+	 * @throws GrammarException if a rule is expanded without end.
+	 */
+	Automaton(Grammar grammar, int[][] productions)
+	{
+		this.grammar = grammar;
+		this.width = grammar.width;
+		
+		int positions = BEGIN + 1;
+		for (int[] items : productions) positions += items.length;
+		
+		this.items = new int[positions];
+		this.lasts = new boolean[positions];
+		this.items[ACCEPT] = this.items[CUT] = -1;
+		this.items[BEGIN] = Grammar.START;
+		this.lasts[BEGIN] = true;
+		
+		this.firsts = new int[productions.length];
+		int position = BEGIN + 1;
+		boolean grouped = false;
+		
+		for (int production = 0; production < productions.length; production++)
+		{
+			int[] items = productions[production];
+			this.firsts[production] = items.length > 0 ? position + items.length - 1 : POP;
+			
+			// The items are in reverse order, so the position after each one
+			// is the one before it
+			for (int k = 0; k < items.length; k++, position++)
+			{
+				this.items[position] = items[k];
+				this.lasts[position] = k == 0;
+				grouped |= grammar.kinds[items[k]] == Grammar.EVENT && grammar.fromStart[items[k]];
+			}
+		}
+		
+		this.depth = grouped ? 0 : DEPTH;
+		this.failures = new int[grammar.kinds.length];
+		this.actions = new int[64 * this.width];
+		this.events = new int[64][];
+		this.pushes = new int[64][];
+		this.resumes = new int[64][];
+		this.nexts = new int[64];
+		this.errors = new int[64];
+		
+		state(ACCEPT, 0, 0);
+		state(CUT, 0, 0);
+		state(BEGIN, 0, 0);
+		
+		int stop = add(0, 0, STOP, -1);
+		int remaining = add(0, 0, FAIL, -1);
+		int drop = add(0, 0, DROP, -1);
+		
+		for (int t = 0; t < this.width; t++)
+		{
+			this.actions[ACCEPT * this.width + t] = t == Grammar.END ? stop : remaining;
+			this.actions[CUT * this.width + t] = drop;
+		}
+		
+		// The states are added as the actions go to them
+		for (int state = BEGIN; state < this.states.size(); state++)
+		{
+			for (int t = 0; t < this.width; t++)
+			{
+				int action = compile(this.states.get(state), t);
+				this.actions[state * this.width + t] = action;
+			}
+		}
+		
+		this.actions = Arrays.copyOf(this.actions, this.states.size() * this.width);
+	}
+	
+	/**
+	 * Returns the offset of the row of the state of a position and the ones
+	 * on the compiled stack between two indexes, adding it if it's new.
+	 */
+	private int state(int position, int from, int to)
+	{
+		List<Integer> key = new ArrayList<>();
+		key.add(position);
+		for (int k = to - 1; k >= from; k--) key.add(this.stack[k] >> 1);
+		
+		Integer state = this.indexes.get(key);
+		
+		if (state == null)
+		{
+			state = this.states.size();
+			this.indexes.put(key, state);
+			
+			int[] positions = new int[key.size()];
+			for (int k = 0; k < positions.length; k++) positions[k] = key.get(k);
+			this.states.add(positions);
+			
+			if (this.actions.length < this.states.size() * this.width)
+				this.actions = Arrays.copyOf(this.actions, this.actions.length * 2);
+		}
+		
+		return state * this.width;
+	}
+	
+	/**
+	 * Returns the position after another one, or POP if its production ends.
+	 */
+	private int after(int position) {
+		return this.lasts[position] ? POP : position - 1;
+	}
+	
+	/**
+	 * Compiles the action of a state by a terminal, following the items
+	 * until the terminal is matched, nothing is left or an item doesn't
+	 * match it, which is left to the analyser.
+	 */
+	private int compile(int[] state, int terminal)
+	{
+		Grammar grammar = this.grammar;
+		int position = state[0];
+		int top = 0;
+		int count = 0;
+		// If the group of the position began before the action
+		boolean current = true;
+		
+		for (int k = state.length - 1; k > 0; k--)
+			this.stack[top++] = state[k] << 1;
+		
+		for (int steps = 0; ; steps++)
+		{
+			if (steps == LIMIT || top == LIMIT)
+				throw new GrammarException("Endless expansion of a rule");
+			
+			if (position == POP)
+			{
+				if (top == 0) return action(0, count, POP);
+				
+				int entry = this.stack[--top];
+				if (entry >> 1 != CUT) {
+					position = entry >> 1;
+					current = (entry & 1) != 0;
+				}
+				continue;
+			}
+			
+			int item = this.items[position];
+			int kind = grammar.kinds[item];
+			int rule = grammar.values[item];
+			int production = -1;
+			
+			if (kind == Grammar.EVENT)
+			{
+				this.fired[count++] = item << 1 | (current ? 1 : 0);
+				position = after(position);
+				continue;
+			}
+			else if (kind == Grammar.RULE)
+			{
+				production = grammar.table[rule * this.width + terminal];
+				if (production < 0) production = grammar.defaults[rule];
+			}
+			else if (rule == terminal)
+			{
+				int next = after(position);
+				
+				while (next == POP && top > 0)
+				{
+					int entry = this.stack[--top];
+					if (entry >> 1 != CUT) {
+						next = entry >> 1;
+						current = (entry & 1) != 0;
+					}
+				}
+				
+				if (next == POP) return action(0, count, RETURN);
+				
+				// The choices are pushed with the positions below them, and the
+				// positions the state doesn't return to
+				int from = top;
+				while (from > 0 && this.stack[from - 1] >> 1 != CUT) from--;
+				from = Math.max(from, top - this.depth);
+				
+				return action(from, count, state(next, from, top) << 1 | (current ? 1 : 0));
+			}
+			
+			if (production < 0)
+			{
+				// The innermost choice goes back to its other production
+				int choice = top - 1;
+				while (choice >= 0 && this.stack[choice] >> 1 != CUT) choice--;
+				
+				if (choice < 0) return fail(item);
+				
+				top = choice;
+				count = this.stackEvents[choice];
+				position = this.stackResumes[choice];
+				current = false;
+				continue;
+			}
+			
+			int next = after(position);
+			if (next != POP) this.stack[top++] = next << 1 | (current ? 1 : 0);
+			
+			int alternative = grammar.alternatives[rule * this.width + terminal];
+			
+			if (alternative >= 0)
+			{
+				this.stackResumes[top] = this.firsts[alternative];
+				this.stackEvents[top] = count;
+				this.stack[top++] = CUT << 1;
+			}
+			
+			position = this.firsts[production];
+			current = false;
+		}
+	}
+	
+	/**
+	 * Returns the action of the events compiled and the positions below an
+	 * index of the stack, which is simple if it only goes to a state of the
+	 * same group.
+	 */
+	private int action(int top, int count, int next)
+	{
+		if (top == 0 && count == 0 && (next == POP || next == RETURN || (next & 1) != 0 || this.depth > 0))
+			return next >= 0 ? next >> 1 : next;
+		
+		return add(top, count, next, -1);
+	}
+	
+	/**
+	 * Returns the action failing at an item without going back to a choice.
+	 */
+	private int fail(int item)
+	{
+		if (this.failures[item] == 0) this.failures[item] = add(0, 0, FAIL, item);
+		return this.failures[item];
+	}
+	
+	private int add(int top, int count, int next, int error)
+	{
+		if (this.count == this.nexts.length)
+		{
+			int length = this.count * 2;
+			this.events = Arrays.copyOf(this.events, length);
+			this.pushes = Arrays.copyOf(this.pushes, length);
+			this.resumes = Arrays.copyOf(this.resumes, length);
+			this.nexts = Arrays.copyOf(this.nexts, length);
+			this.errors = Arrays.copyOf(this.errors, length);
+		}
+		
+		// Each choice is pushed as a state of its own, and the positions
+		// between them as the fewest states
+		List<Integer> pushes = new ArrayList<>();
+		List<Integer> resumes = new ArrayList<>();
+		
+		for (int from = 0, to; from < top; from = to)
+		{
+			to = from + 1;
+			
+			if (this.stack[from] >> 1 == CUT)
+			{
+				int resume = this.stackResumes[from];
+				
+				pushes.add(CUT * this.width << 1);
+				resumes.add(resume == POP ? POP : state(resume, 0, 0));
+				continue;
+			}
+			
+			while (to < top && to - from <= this.depth && this.stack[to] >> 1 != CUT) to++;
+			
+			pushes.add(state(this.stack[to - 1] >> 1, from, to - 1) << 1 | (this.stack[to - 1] & 1));
+			resumes.add(POP);
+		}
+		
+		this.events[this.count] = Arrays.copyOf(this.fired, count);
+		this.pushes[this.count] = new int[pushes.size()];
+		this.resumes[this.count] = new int[pushes.size()];
+		this.nexts[this.count] = next;
+		this.errors[this.count] = error;
+		
+		for (int k = 0; k < pushes.size(); k++)
+		{
+			this.pushes[this.count][k] = pushes.get(k);
+			this.resumes[this.count][k] = resumes.get(k);
+		}
+		
+		return COMPLEX - this.count++;
+	}
+}
@@ -3,7 +3,16 @@ package syntactic;
 import lexical.Symbol;
 
 public class EmptySyntaticListener implements SyntacticListener {
-
+	
+	/**
+	 * Returns no event, unless the listener is a subclass, which may
+	 * override any of the methods.
+	 */
+	@Override
+	public int getEvents() {
+		return getClass() == EmptySyntaticListener.class ? NONE : ALL;
+	}
+	
 	@Override
 	public void matchIndex(int i) {
 		// TODO Auto-generated method stub
@@ -52,18 +61,6 @@ public class EmptySyntaticListener implements SyntacticListener {
 
 	}
 
-	@Override
-	public void onExpressionBegin(int i, Symbol symbol) {
-		// TODO Auto-generated method stub
-
-	}
-
-	@Override
-	public void onExpressionEnd(int i, Symbol symbol) {
-		// TODO Auto-generated method stub
-
-	}
-
 	@Override
 	public void onProcedureDeclaration(int i, Symbol symbol) {
 		// TODO Auto-generated method stub
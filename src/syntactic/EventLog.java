@@ -0,0 +1,309 @@
+package syntactic;
+
+import java.util.Arrays;
+
+import lexical.Symbol;
+import lexical.TokenBuffer;
+
+/**
+ * Records the events of a syntactic analysis in order, in a compact buffer,
+ * so they can be replayed to another listener later.
+ * Each event takes a long, with the index of its token and its opcode. Its
+ * symbol, or the line of a scope, is created from the tokens when replayed
+ * if it's the one of its token, and is kept aside otherwise.
+ * The events undone by {@link #matchIndex(int)}, which are the last ones
+ * from an index on, are removed instead of recorded, so only the ones of
+ * the alternatives that matched are replayed, unless every event is kept.
+ */
+public class EventLog implements SyntacticListener
+{
+	// The opcodes, the positions of the bits of the events in the masks of
+	// SyntacticListener, which constants these hide
+	private static final int MATCH_INDEX = 0;
+	private static final int SCOPE_BEGIN = 1;
+	private static final int SCOPE_END = 2;
+	private static final int VARIABLE_DECLARATION = 3;
+	private static final int TYPE_DEFINITION = 4;
+	private static final int VARIABLE = 5;
+	private static final int VALUE = 6;
+	private static final int OPERATOR = 7;
+	private static final int PROCEDURE_DECLARATION = 8;
+	private static final int PARAMETERS_BEGIN = 9;
+	private static final int PARAMETERS_END = 10;
+	private static final int PROCEDURE = 11;
+	private static final int ARGUMENTS_BEGIN = 12;
+	private static final int ARGUMENTS_END = 13;
+	private static final int ARGUMENT = 14;
+	private static final int CONTROL_CONDITION = 15;
+	
+	// The bits of an event taken by the opcode, below the index
+	private static final int OPCODE_BITS = 8;
+	
+	private final TokenBuffer tokens;
+	private final boolean committed;
+	
+	private long[] events = new long[64];
+	private int size = 0;
+	
+	// The events which symbol or line isn't the one of their token, in order
+	private int[] others = new int[16];
+	private Symbol[] symbols = new Symbol[16];
+	private int[] lines = new int[16];
+	private int otherCount = 0;
+	
+	/**
+	 * The constructor.
+	 * @param tokens the tokens of the events, or null if they are unknown,
+	 * 		so every symbol is kept.
+	 * @param committed if the events undone by {@link #matchIndex(int)} are
+	 * 		removed, or every event is kept.
+	 */
+	public EventLog(TokenBuffer tokens, boolean committed)
+	{
+		this.tokens = tokens;
+		this.committed = committed;
+	}
+	
+	public EventLog(TokenBuffer tokens) {
+		this(tokens, true);
+	}
+	
+	public EventLog() {
+		this(null, true);
+	}
+	
+	private void add(int opcode, int i, Symbol symbol, int line)
+	{
+		if (this.size == this.events.length)
+			this.events = Arrays.copyOf(this.events, this.size * 2);
+		
+		if (opcode != MATCH_INDEX && !isToken(i, symbol, line))
+		{
+			if (this.otherCount == this.others.length)
+			{
+				int capacity = this.otherCount * 2;
+				this.others = Arrays.copyOf(this.others, capacity);
+				this.symbols = Arrays.copyOf(this.symbols, capacity);
+				this.lines = Arrays.copyOf(this.lines, capacity);
+			}
+			
+			this.others[this.otherCount] = this.size;
+			this.symbols[this.otherCount] = symbol;
+			this.lines[this.otherCount] = line;
+			this.otherCount++;
+		}
+		
+		this.events[this.size++] = (long) i << OPCODE_BITS | opcode;
+	}
+	
+	/**
+	 * Checks if a symbol, or the line of a scope if there's none, is the one
+	 * of the token at an index, as the spellings of the tokens are shared by
+	 * their name table.
+	 */
+	private boolean isToken(int i, Symbol symbol, int line)
+	{
+		if (this.tokens == null || i < 0 || i >= this.tokens.size()) return false;
+		
+		if (symbol == null) return line == this.tokens.getAt(i);
+		
+		return symbol.getToken() == this.tokens.getToken(i) && symbol.getType() == this.tokens.getType(i)
+				&& symbol.getAt() == this.tokens.getAt(i);
+	}
+	
+	/**
+	 * Returns the number of events recorded.
+	 */
+	public int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Removes every event.
+	 */
+	public void clear()
+	{
+		this.size = 0;
+		this.otherCount = 0;
+		Arrays.fill(this.symbols, null);
+	}
+	
+	/**
+	 * Calls the methods of a listener for the events recorded, in order.
+	 */
+	public void replay(SyntacticListener listener)
+	{
+		int other = 0;
+		
+		for (int event = 0; event < this.size; event++)
+		{
+			int i = (int) (this.events[event] >>> OPCODE_BITS);
+			int opcode = (int) this.events[event] & ((1 << OPCODE_BITS) - 1);
+			
+			Symbol symbol;
+			int line;
+			
+			if (other < this.otherCount && this.others[other] == event)
+			{
+				symbol = this.symbols[other];
+				line = this.lines[other++];
+			}
+			else
+			{
+				symbol = opcode > SCOPE_END ? this.tokens.get(i) : null;
+				line = opcode > MATCH_INDEX && opcode <= SCOPE_END ? this.tokens.getAt(i) : 0;
+			}
+			
+			switch (opcode)
+			{
+				case MATCH_INDEX: listener.matchIndex(i); break;
+				case SCOPE_BEGIN: listener.onScopeBegin(i, line); break;
+				case SCOPE_END: listener.onScopeEnd(i, line); break;
+				case VARIABLE_DECLARATION: listener.onVariableDeclaration(i, symbol); break;
+				case TYPE_DEFINITION: listener.onTypeDefinition(i, symbol); break;
+				case VARIABLE: listener.onVariable(i, symbol); break;
+				case VALUE: listener.onValue(i, symbol); break;
+				case OPERATOR: listener.onOperator(i, symbol); break;
+				case PROCEDURE_DECLARATION: listener.onProcedureDeclaration(i, symbol); break;
+				case PARAMETERS_BEGIN: listener.onProcedureParametersDeclarationBegin(i, symbol); break;
+				case PARAMETERS_END: listener.onProcedureParametersDeclarationEnd(i, symbol); break;
+				case PROCEDURE: listener.onProcedure(i, symbol); break;
+				case ARGUMENTS_BEGIN: listener.onProcedureArgumentsBegin(i, symbol); break;
+				case ARGUMENTS_END: listener.onProcedureArgumentsEnd(i, symbol); break;
+				case ARGUMENT: listener.onProcedureArgument(i, symbol); break;
+				case CONTROL_CONDITION: listener.onControlCondition(i, symbol); break;
+			}
+		}
+	}
+	
+	/**
+	 * Lists the events, one in each line, with their index and token or line.
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		
+		replay(new SyntacticListener() {
+			private void append(String event, int i, String value) {
+				builder.append(event).append(' ').append(i).append(value).append('\n');
+			}
+			
+			private void append(String event, int i, Symbol symbol) {
+				append(event, i, " " + symbol.getToken());
+			}
+			
+			@Override public void matchIndex(int i) { append("matchIndex", i, ""); }
+			@Override public void onScopeBegin(int i, int line) { append("onScopeBegin", i, " at " + line); }
+			@Override public void onScopeEnd(int i, int line) { append("onScopeEnd", i, " at " + line); }
+			@Override public void onVariableDeclaration(int i, Symbol symbol) { append("onVariableDeclaration", i, symbol); }
+			@Override public void onTypeDefinition(int i, Symbol symbol) { append("onTypeDefinition", i, symbol); }
+			@Override public void onVariable(int i, Symbol symbol) { append("onVariable", i, symbol); }
+			@Override public void onValue(int i, Symbol symbol) { append("onValue", i, symbol); }
+			@Override public void onOperator(int i, Symbol symbol) { append("onOperator", i, symbol); }
+			@Override public void onProcedureDeclaration(int i, Symbol symbol) { append("onProcedureDeclaration", i, symbol); }
+			@Override public void onProcedureParametersDeclarationBegin(int i, Symbol symbol) { append("onProcedureParametersDeclarationBegin", i, symbol); }
+			@Override public void onProcedureParametersDeclarationEnd(int i, Symbol symbol) { append("onProcedureParametersDeclarationEnd", i, symbol); }
+			@Override public void onProcedure(int i, Symbol symbol) { append("onProcedure", i, symbol); }
+			@Override public void onProcedureArgumentsBegin(int i, Symbol symbol) { append("onProcedureArgumentsBegin", i, symbol); }
+			@Override public void onProcedureArgumentsEnd(int i, Symbol symbol) { append("onProcedureArgumentsEnd", i, symbol); }
+			@Override public void onProcedureArgument(int i, Symbol symbol) { append("onProcedureArgument", i, symbol); }
+			@Override public void onControlCondition(int i, Symbol symbol) { append("onControlCondition", i, symbol); }
+		});
+		
+		return builder.toString();
+	}
+	
+	/**
+	 * Removes the last events from an index on, as the alternative they
+	 * were recorded by didn't match, unless every event is kept.
+	 */
+	@Override
+	public void matchIndex(int i)
+	{
+		if (!this.committed) {
+			add(MATCH_INDEX, i, null, 0);
+			return;
+		}
+		
+		while (this.size > 0 && this.events[this.size - 1] >>> OPCODE_BITS >= i) this.size--;
+		
+		while (this.otherCount > 0 && this.others[this.otherCount - 1] >= this.size)
+			this.symbols[--this.otherCount] = null;
+	}
+	
+	@Override
+	public void onScopeBegin(int i, int line) {
+		add(SCOPE_BEGIN, i, null, line);
+	}
+	
+	@Override
+	public void onScopeEnd(int i, int line) {
+		add(SCOPE_END, i, null, line);
+	}
+	
+	@Override
+	public void onVariableDeclaration(int i, Symbol symbol) {
+		add(VARIABLE_DECLARATION, i, symbol, 0);
+	}
+	
+	@Override
+	public void onTypeDefinition(int i, Symbol symbol) {
+		add(TYPE_DEFINITION, i, symbol, 0);
+	}
+	
+	@Override
+	public void onVariable(int i, Symbol symbol) {
+		add(VARIABLE, i, symbol, 0);
+	}
+	
+	@Override
+	public void onValue(int i, Symbol symbol) {
+		add(VALUE, i, symbol, 0);
+	}
+	
+	@Override
+	public void onOperator(int i, Symbol symbol) {
+		add(OPERATOR, i, symbol, 0);
+	}
+	
+	@Override
+	public void onProcedureDeclaration(int i, Symbol symbol) {
+		add(PROCEDURE_DECLARATION, i, symbol, 0);
+	}
+	
+	@Override
+	public void onProcedureParametersDeclarationBegin(int i, Symbol symbol) {
+		add(PARAMETERS_BEGIN, i, symbol, 0);
+	}
+	
+	@Override
+	public void onProcedureParametersDeclarationEnd(int i, Symbol symbol) {
+		add(PARAMETERS_END, i, symbol, 0);
+	}
+	
+	@Override
+	public void onProcedure(int i, Symbol symbol) {
+		add(PROCEDURE, i, symbol, 0);
+	}
+	
+	@Override
+	public void onProcedureArgumentsBegin(int i, Symbol symbol) {
+		add(ARGUMENTS_BEGIN, i, symbol, 0);
+	}
+	
+	@Override
+	public void onProcedureArgumentsEnd(int i, Symbol symbol) {
+		add(ARGUMENTS_END, i, symbol, 0);
+	}
+	
+	@Override
+	public void onProcedureArgument(int i, Symbol symbol) {
+		add(ARGUMENT, i, symbol, 0);
+	}
+	
+	@Override
+	public void onControlCondition(int i, Symbol symbol) {
+		add(CONTROL_CONDITION, i, symbol, 0);
+	}
+}
@@ -0,0 +1,784 @@
+package syntactic;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lexical.NameTable;
+import lexical.TokenType;
+
+/**
+ * An LL(1) grammar read from an EBNF-like specification, with the FIRST and
+ * FOLLOW sets of its rules and the parse table built from them.
+ * The specification is a list of rules, such as {@code Name = alternatives ;},
+ * the first one being the start. The alternatives are separated by '|', and
+ * each one is a sequence of:
+ * <ul>
+ * <li>tokens by their spelling, as {@code 'begin'}, or by their type, as {@code Identifier};</li>
+ * <li>rules by their name;</li>
+ * <li>groups, as {@code ( alternatives )}, options, as {@code [ alternatives ]}, and
+ * 		repetitions, as {@code { alternatives }};</li>
+ * <li>events, as {@code @onVariable(-1)}, which call the method of the listener with
+ * 		the index of the token at an offset from the next one to be read, or from the
+ * 		first one of the innermost group with '^', and optionally another offset for
+ * 		its symbol.</li>
+ * </ul>
+ * A token or a rule may be followed by {@code !"message"}, the message of the
+ * exception thrown if it doesn't match. A comment begins with '#'.
+ * A conflict in the table is resolved for the alternative that comes first,
+ * and the other one is kept to be tried if it doesn't match. The number of
+ * them must be declared by {@code %expect}, so any other one is reported
+ * when the table is built.
+ */
+public class Grammar
+{
+	// The kinds of the items of the productions
+	static final int TERMINAL = 0;
+	static final int RULE = 1;
+	static final int EVENT = 2;
+	
+	// The terminal of the end of the code, and the one of the tokens that
+	// aren't in the grammar
+	static final int END = 0;
+	static final int OTHER = 1;
+	
+	// The item of the start rule, which is the first one
+	static final int START = 0;
+	
+	// The events, by the positions of their bits in SyntacticListener
+	private static final String[] EVENTS = { "matchIndex", "onScopeBegin", "onScopeEnd", "onVariableDeclaration",
+			"onTypeDefinition", "onVariable", "onValue", "onOperator", "onProcedureDeclaration",
+			"onProcedureParametersDeclarationBegin", "onProcedureParametersDeclarationEnd", "onProcedure",
+			"onProcedureArgumentsBegin", "onProcedureArgumentsEnd", "onProcedureArgument", "onControlCondition" };
+	
+	private static final NameTable NAMES = new NameTable();
+	
+	private final List<String> terminals = new ArrayList<>();
+	// The text of each rule, its name or the one of its group, and the
+	// name of the rule it's in
+	private final List<String> rules = new ArrayList<>();
+	private final List<String> owners = new ArrayList<>();
+	private final Map<String, Integer> ruleIndexes = new HashMap<>();
+	
+	// The items of each production, and the production of each rule, while
+	// they're read
+	private final List<List<Item>> read = new ArrayList<>();
+	private final List<Integer> readRules = new ArrayList<>();
+	private int expected = 0;
+	
+	// The terminal of each fixed name id, and of each token type
+	final int[] terminalsById = new int[NAMES.size()];
+	final int[] terminalsByType = new int[TokenType.values().length];
+	
+	// The items, by their index
+	int[] kinds;
+	int[] values;
+	int[] offsets;
+	int[] symbolOffsets;
+	boolean[] fromStart;
+	String[] messages;
+	
+	// The rule of each production, and its items in reverse order
+	int[] lefts;
+	int[][] productions;
+	
+	private boolean[] nullable;
+	private BitSet[] first;
+	private BitSet[] follow;
+	
+	// The production of each rule by each terminal, or -1, and the one of
+	// each rule for the terminals without one, which is the one that may be
+	// empty, or the only one, so the error is found by a token
+	int width;
+	int[] table;
+	int[] defaults;
+	// The production left by the conflict of each cell, or -1
+	int[] alternatives;
+	private final List<String> conflicts = new ArrayList<>();
+	
+	// The tokens of the specification while it's read
+	private List<String> tokens;
+	private int next;
+	
+	/**
+	 * Reads a specification and builds its table.
+	 * @throws GrammarException if it's invalid or the number of conflicts
+	 * 		isn't the one it expects.
+	 */
+	public Grammar(String specification)
+	{
+		this.terminals.add("end of file");
+		this.terminals.add("other token");
+		
+		for (int i = 0; i < this.terminalsById.length; i++) this.terminalsById[i] = -1;
+		for (int i = 0; i < this.terminalsByType.length; i++) this.terminalsByType[i] = OTHER;
+		
+		read(specification);
+		resolve();
+		
+		computeSets();
+		buildTable();
+		
+		if (this.conflicts.size() != this.expected)
+		{
+			throw new GrammarException(String.format("Expected %d conflicts, found %d:\n%s",
+					this.expected, this.conflicts.size(), String.join("\n", this.conflicts)));
+		}
+	}
+	
+	/**
+	 * Returns the productions without the events that aren't in a mask of
+	 * {@link SyntacticListener}, so they aren't pushed to be skipped.
+	 */
+	int[][] productions(int events)
+	{
+		int[][] productions = new int[this.productions.length][];
+		
+		for (int production = 0; production < productions.length; production++)
+		{
+			int[] items = this.productions[production];
+			int count = 0;
+			
+			for (int k = 0; k < items.length; k++)
+				if (this.kinds[items[k]] != EVENT || (events & 1 << this.values[items[k]]) != 0) count++;
+			
+			productions[production] = new int[count];
+			count = 0;
+			
+			for (int k = 0; k < items.length; k++)
+				if (this.kinds[items[k]] != EVENT || (events & 1 << this.values[items[k]]) != 0)
+					productions[production][count++] = items[k];
+		}
+		
+		return productions;
+	}
+	
+	/**
+	 * Returns the index of the method of an event, the position of its bit
+	 * in the masks of {@link SyntacticListener}.
+	 */
+	static int event(String name)
+	{
+		for (int event = 0; event < EVENTS.length; event++)
+			if (EVENTS[event].equals(name)) return event;
+		
+		return -1;
+	}
+	
+	public List<String> getConflicts() {
+		return Collections.unmodifiableList(this.conflicts);
+	}
+	
+	public boolean isNullable(String rule) {
+		return this.nullable[rule(rule)];
+	}
+	
+	/**
+	 * Returns the tokens that may begin a rule, by their spelling in quotes
+	 * or their type.
+	 */
+	public Set<String> getFirst(String rule) {
+		return names(this.first[rule(rule)]);
+	}
+	
+	/**
+	 * Returns the tokens that may follow a rule, including the end of file.
+	 */
+	public Set<String> getFollow(String rule) {
+		return names(this.follow[rule(rule)]);
+	}
+	
+	private int rule(String name)
+	{
+		Integer rule = this.ruleIndexes.get(name);
+		if (rule == null) throw new IllegalArgumentException("Unknown rule " + name);
+		
+		return rule;
+	}
+	
+	private Set<String> names(BitSet terminals)
+	{
+		Set<String> names = new LinkedHashSet<>();
+		for (int t = terminals.nextSetBit(0); t >= 0; t = terminals.nextSetBit(t + 1))
+			names.add(this.terminals.get(t));
+		
+		return names;
+	}
+	
+	// Reading
+	
+	/**
+	 * An item of a production while it's read, which refers to a terminal
+	 * or a rule by its name until every rule is read.
+	 */
+	private static class Item
+	{
+		int kind;
+		String name;
+		int value;
+		int offset;
+		int symbolOffset;
+		boolean fromStart;
+		String message;
+	}
+	
+	private void read(String specification)
+	{
+		this.tokens = split(specification);
+		this.next = 0;
+		
+		while (this.next < this.tokens.size())
+		{
+			String token = take();
+			
+			if (token.equals("%expect")) {
+				this.expected = number(take());
+				continue;
+			}
+			
+			if (!isName(token))
+				throw new GrammarException("Expected a rule name, found " + token);
+			
+			int rule = define(token, token, token);
+			expect("=");
+			readAlternatives(rule, token);
+			expect(";");
+		}
+		
+		this.tokens = null;
+	}
+	
+	private int define(String name, String text, String owner)
+	{
+		if (this.ruleIndexes.containsKey(name))
+			throw new GrammarException("Rule " + name + " defined twice");
+		
+		this.ruleIndexes.put(name, this.rules.size());
+		this.rules.add(text);
+		this.owners.add(owner);
+		
+		return this.rules.size() - 1;
+	}
+	
+	/**
+	 * Reads the alternatives of a rule until the token that closes them.
+	 */
+	private void readAlternatives(int rule, String name)
+	{
+		do {
+			List<Item> items = new ArrayList<>();
+			readSequence(items, name);
+			
+			this.read.add(items);
+			this.readRules.add(rule);
+		}
+		while (accept("|"));
+	}
+	
+	private void readSequence(List<Item> items, String name)
+	{
+		while (this.next < this.tokens.size())
+		{
+			String token = peek();
+			
+			if (token.equals("|") || token.equals(";") || token.equals(")") || token.equals("]") || token.equals("}"))
+				return;
+			
+			this.next++;
+			Item item = new Item();
+			
+			if (token.equals("@"))
+			{
+				readEvent(item);
+				items.add(item);
+				continue;
+			}
+			
+			if (token.startsWith("'")) {
+				item.kind = TERMINAL;
+				item.value = spelling(token);
+			}
+			else if (isName(token)) {
+				item.kind = RULE;
+				item.name = token;
+			}
+			else if (token.equals("(") || token.equals("[") || token.equals("{"))
+			{
+				item.kind = RULE;
+				item.value = readGroup(token, name);
+			}
+			else throw new GrammarException("Unexpected " + token + " in rule " + name);
+			
+			if (accept("!")) item.message = message(take());
+			
+			items.add(item);
+		}
+	}
+	
+	/**
+	 * Reads a group, option or repetition into a rule of its own, named by
+	 * its text.
+	 * @return the index of the rule.
+	 */
+	private int readGroup(String open, String name)
+	{
+		int from = this.next - 1;
+		String close = open.equals("(") ? ")" : open.equals("[") ? "]" : "}";
+		
+		int depth = 0;
+		int to = from;
+		for (; to < this.tokens.size(); to++)
+		{
+			String token = this.tokens.get(to);
+			if (token.equals("(") || token.equals("[") || token.equals("{")) depth++;
+			else if ((token.equals(")") || token.equals("]") || token.equals("}")) && --depth == 0) break;
+		}
+		
+		// Without its events and messages
+		StringBuilder text = new StringBuilder();
+		for (int k = from; k <= to && k < this.tokens.size(); k++)
+		{
+			String token = this.tokens.get(k);
+			
+			if (token.equals("@")) while (k < to && !this.tokens.get(k).equals(")")) k++;
+			else if (token.equals("!")) k++;
+			else text.append(text.length() > 0 ? " " : "").append(token);
+		}
+		
+		int rule = define(name + "." + this.rules.size(), text.toString(), name);
+		int first = this.read.size();
+		
+		readAlternatives(rule, name);
+		expect(close);
+		
+		if (open.equals("{"))
+		{
+			// Each alternative is followed by the repetition again
+			for (int production = first; production < this.read.size(); production++)
+			{
+				Item item = new Item();
+				item.kind = RULE;
+				item.value = rule;
+				this.read.get(production).add(item);
+			}
+		}
+		
+		if (!open.equals("("))
+		{
+			this.read.add(new ArrayList<Item>());
+			this.readRules.add(rule);
+		}
+		
+		return rule;
+	}
+	
+	private void readEvent(Item item)
+	{
+		String name = take();
+		
+		item.kind = EVENT;
+		item.value = event(name);
+		
+		if (item.value < 0) throw new GrammarException("Unknown event " + name);
+		
+		expect("(");
+		
+		item.fromStart = accept("^");
+		item.offset = offset();
+		
+		if (accept(",")) item.symbolOffset = offset() - item.offset;
+		
+		expect(")");
+	}
+	
+	private int offset()
+	{
+		if (accept("-")) return -number(take());
+		if (accept("+") || Character.isDigit(peek().charAt(0))) return number(take());
+		
+		return 0;
+	}
+	
+	/**
+	 * Resolves the names of the rules and terminals of the items, and
+	 * stores every item and production in arrays, after the start one.
+	 */
+	private void resolve()
+	{
+		int count = 1;
+		for (List<Item> items : this.read) count += items.size();
+		
+		this.kinds = new int[count];
+		this.values = new int[count];
+		this.offsets = new int[count];
+		this.symbolOffsets = new int[count];
+		this.fromStart = new boolean[count];
+		this.messages = new String[count];
+		
+		this.lefts = new int[this.read.size()];
+		this.productions = new int[this.read.size()][];
+		
+		if (this.rules.isEmpty()) throw new GrammarException("No rules");
+		
+		this.kinds[START] = RULE;
+		this.values[START] = 0;
+		this.messages[START] = message(0);
+		int index = START + 1;
+		
+		for (int production = 0; production < this.read.size(); production++)
+		{
+			List<Item> items = this.read.get(production);
+			this.lefts[production] = this.readRules.get(production);
+			this.productions[production] = new int[items.size()];
+			
+			for (int k = 0; k < items.size(); k++)
+			{
+				Item item = items.get(k);
+				
+				if (item.name != null)
+				{
+					Integer rule = this.ruleIndexes.get(item.name);
+					
+					if (rule != null) {
+						item.value = rule;
+					}
+					else {
+						item.kind = TERMINAL;
+						item.value = type(item.name);
+					}
+				}
+				
+				this.kinds[index] = item.kind;
+				this.values[index] = item.value;
+				this.offsets[index] = item.offset;
+				this.symbolOffsets[index] = item.symbolOffset;
+				this.fromStart[index] = item.fromStart;
+				this.messages[index] = item.message != null ? item.message
+						: item.kind == TERMINAL ? "Missing " + terminalMessage(item.value)
+						: item.kind == RULE ? message(item.value) : null;
+				
+				// In reverse order, as they're pushed to a stack
+				this.productions[production][items.size() - 1 - k] = index++;
+			}
+		}
+		
+		this.read.clear();
+		this.readRules.clear();
+	}
+	
+	private String message(int rule) {
+		return "Didn't match any " + this.owners.get(rule).toLowerCase() + " possibility";
+	}
+	
+	/**
+	 * Returns the name of a rule, or the text of a group and the name of
+	 * the rule it's in.
+	 */
+	private String display(int rule)
+	{
+		String text = this.rules.get(rule);
+		return text.equals(this.owners.get(rule)) ? text : text + " in " + this.owners.get(rule);
+	}
+	
+	private String terminalMessage(int terminal)
+	{
+		String name = this.terminals.get(terminal);
+		return name.startsWith("'") ? name : name.toLowerCase();
+	}
+	
+	/**
+	 * Returns the terminal of a spelling in quotes, which must be one of the
+	 * fixed names.
+	 */
+	private int spelling(String quoted)
+	{
+		String spelling = quoted.substring(1, quoted.length() - 1);
+		int id = NAMES.find(spelling);
+		
+		if (id < 0 || id >= this.terminalsById.length)
+			throw new GrammarException("Unknown token " + quoted);
+		
+		if (this.terminalsById[id] < 0)
+		{
+			this.terminalsById[id] = this.terminals.size();
+			this.terminals.add(quoted);
+		}
+		
+		return this.terminalsById[id];
+	}
+	
+	/**
+	 * Returns the terminal of a token type by its name.
+	 */
+	private int type(String name)
+	{
+		TokenType type;
+		
+		try {
+			type = TokenType.valueOf(name);
+		}
+		catch (IllegalArgumentException e) {
+			throw new GrammarException("Unknown rule or token type " + name);
+		}
+		
+		if (this.terminalsByType[type.ordinal()] == OTHER)
+		{
+			this.terminalsByType[type.ordinal()] = this.terminals.size();
+			this.terminals.add(name);
+		}
+		
+		return this.terminalsByType[type.ordinal()];
+	}
+	
+	// Sets and table
+	
+	private void computeSets()
+	{
+		int count = this.rules.size();
+		int terminals = this.terminals.size();
+		
+		this.nullable = new boolean[count];
+		this.first = new BitSet[count];
+		this.follow = new BitSet[count];
+		
+		for (int rule = 0; rule < count; rule++)
+		{
+			this.first[rule] = new BitSet(terminals);
+			this.follow[rule] = new BitSet(terminals);
+		}
+		
+		for (boolean changed = true; changed; )
+		{
+			changed = false;
+			
+			for (int production = 0; production < this.productions.length; production++)
+			{
+				int rule = this.lefts[production];
+				int before = this.first[rule].cardinality();
+				
+				if (first(this.productions[production], this.productions[production].length, this.first[rule]) && !this.nullable[rule])
+					changed = this.nullable[rule] = true;
+				
+				changed |= this.first[rule].cardinality() != before;
+			}
+		}
+		
+		this.follow[this.values[START]].set(END);
+		
+		for (boolean changed = true; changed; )
+		{
+			changed = false;
+			
+			for (int production = 0; production < this.productions.length; production++)
+			{
+				int[] items = this.productions[production];
+				
+				for (int k = 0; k < items.length; k++)
+				{
+					if (this.kinds[items[k]] != RULE) continue;
+					
+					BitSet follow = this.follow[this.values[items[k]]];
+					int before = follow.cardinality();
+					
+					// The items after it are the ones before it, in reverse order
+					if (first(items, k, follow)) follow.or(this.follow[this.lefts[production]]);
+					
+					changed |= follow.cardinality() != before;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Adds the FIRST set of the items of a production before an index, which
+	 * are in reverse order, to a set.
+	 * @return if they may be empty.
+	 */
+	private boolean first(int[] items, int to, BitSet set)
+	{
+		for (int k = to - 1; k >= 0; k--)
+		{
+			int item = items[k];
+			
+			if (this.kinds[item] == TERMINAL) {
+				set.set(this.values[item]);
+				return false;
+			}
+			else if (this.kinds[item] == RULE)
+			{
+				set.or(this.first[this.values[item]]);
+				if (!this.nullable[this.values[item]]) return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private void buildTable()
+	{
+		this.width = this.terminals.size();
+		this.table = new int[this.rules.size() * this.width];
+		this.defaults = new int[this.rules.size()];
+		this.alternatives = new int[this.table.length];
+		int[] counts = new int[this.rules.size()];
+		
+		for (int i = 0; i < this.table.length; i++) this.table[i] = -1;
+		for (int i = 0; i < this.defaults.length; i++) this.defaults[i] = -1;
+		for (int i = 0; i < this.alternatives.length; i++) this.alternatives[i] = -1;
+		
+		for (int production = 0; production < this.productions.length; production++)
+		{
+			int rule = this.lefts[production];
+			BitSet terminals = new BitSet(this.width);
+			counts[rule]++;
+			
+			if (first(this.productions[production], this.productions[production].length, terminals))
+			{
+				terminals.or(this.follow[rule]);
+				if (this.defaults[rule] < 0) this.defaults[rule] = production;
+			}
+			
+			for (int t = terminals.nextSetBit(0); t >= 0; t = terminals.nextSetBit(t + 1))
+			{
+				int cell = rule * this.width + t;
+				
+				if (this.table[cell] < 0)
+				{
+					this.table[cell] = production;
+				}
+				else
+				{
+					if (this.alternatives[cell] < 0) this.alternatives[cell] = production;
+					this.conflicts.add(String.format("%s on %s: %s, and %s", display(rule), this.terminals.get(t),
+							text(this.table[cell]), text(production)));
+				}
+			}
+		}
+		
+		for (int production = 0; production < this.productions.length; production++)
+		{
+			int rule = this.lefts[production];
+			if (this.defaults[rule] < 0 && counts[rule] == 1) this.defaults[rule] = production;
+		}
+	}
+	
+	/**
+	 * Returns the text of a production, without its events.
+	 */
+	private String text(int production)
+	{
+		StringBuilder text = new StringBuilder();
+		int[] items = this.productions[production];
+		
+		for (int k = items.length - 1; k >= 0; k--)
+		{
+			int item = items[k];
+			if (this.kinds[item] == EVENT) continue;
+			
+			if (text.length() > 0) text.append(' ');
+			text.append(this.kinds[item] == TERMINAL ? this.terminals.get(this.values[item]) : this.rules.get(this.values[item]));
+		}
+		
+		return text.length() > 0 ? text.toString() : "empty";
+	}
+	
+	// Tokens of the specification
+	
+	/**
+	 * Splits a specification into names, quoted spellings and messages,
+	 * numbers, directives and punctuation, without comments.
+	 */
+	private static List<String> split(String specification)
+	{
+		List<String> tokens = new ArrayList<>();
+		int i = 0;
+		
+		while (i < specification.length())
+		{
+			char c = specification.charAt(i);
+			int from = i;
+			
+			if (Character.isWhitespace(c)) {
+				i++;
+				continue;
+			}
+			
+			if (c == '#')
+			{
+				while (i < specification.length() && specification.charAt(i) != '\n') i++;
+				continue;
+			}
+			
+			if (c == '\'' || c == '"')
+			{
+				i = specification.indexOf(c, i + 1);
+				if (i < 0) throw new GrammarException("Unterminated " + specification.substring(from));
+				i++;
+			}
+			else if (Character.isLetterOrDigit(c) || c == '%')
+			{
+				i++;
+				while (i < specification.length() && Character.isLetterOrDigit(specification.charAt(i))) i++;
+			}
+			else i++;
+			
+			tokens.add(specification.substring(from, i));
+		}
+		
+		return tokens;
+	}
+	
+	private static boolean isName(String token) {
+		return Character.isLetter(token.charAt(0));
+	}
+	
+	private static int number(String token)
+	{
+		try {
+			return Integer.parseInt(token);
+		}
+		catch (NumberFormatException e) {
+			throw new GrammarException("Expected a number, found " + token);
+		}
+	}
+	
+	private static String message(String token)
+	{
+		if (!token.startsWith("\"")) throw new GrammarException("Expected a message, found " + token);
+		return token.substring(1, token.length() - 1);
+	}
+	
+	private String peek()
+	{
+		if (this.next >= this.tokens.size()) throw new GrammarException("Unexpected end of the specification");
+		return this.tokens.get(this.next);
+	}
+	
+	private String take()
+	{
+		String token = peek();
+		this.next++;
+		
+		return token;
+	}
+	
+	private boolean accept(String token)
+	{
+		if (this.next >= this.tokens.size() || !this.tokens.get(this.next).equals(token)) return false;
+		
+		this.next++;
+		return true;
+	}
+	
+	private void expect(String token)
+	{
+		if (!accept(token))
+			throw new GrammarException("Expected " + token + ", found "
+					+ (this.next < this.tokens.size() ? this.tokens.get(this.next) : "the end of the specification"));
+	}
+}
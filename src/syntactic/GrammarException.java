@@ -0,0 +1,13 @@
+package syntactic;
+
+/**
+ * Thrown when a grammar specification is invalid, or its parse table has
+ * conflicts that it doesn't expect.
+ */
+@SuppressWarnings("serial")
+public class GrammarException extends RuntimeException
+{
+	public GrammarException(String msg) {
+		super(msg);
+	}
+}
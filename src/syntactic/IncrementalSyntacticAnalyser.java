@@ -0,0 +1,150 @@
+package syntactic;
+
+import java.util.Arrays;
+
+import lexical.TokenBuffer;
+
+/**
+ * Analyses a code syntactically, keeping its syntax tree, so after its
+ * tokens are edited, as by a {@link lexical.IncrementalLexicalAnalyser},
+ * only the smallest procedure declaration or compound command around the
+ * edited ones is analysed again, and its subtree is replaced.
+ * The edited tokens are found by comparing their ids to the ones of the
+ * last analysis. If the part analysed again doesn't match, or doesn't end
+ * at the same token as before, the whole code is analysed again, so the
+ * tree and the exceptions are the same of {@link SyntacticAnalyser#analyseTree()}.
+ * There's no listener, as the events of the rest of the code would be lost.
+ */
+public class IncrementalSyntacticAnalyser
+{
+	private final TokenBuffer symbols;
+	
+	// The tree of the last analysis, or null if it failed
+	private SyntaxTree tree;
+	// The ids of the tokens of the last analysis
+	private int[] ids = new int[64];
+	private int count = 0;
+	// The number of tokens analysed by the last analysis
+	private int analysed = 0;
+	
+	/**
+	 * The constructor.
+	 * @param symbols the tokens, which are edited between the analyses.
+	 */
+	public IncrementalSyntacticAnalyser(TokenBuffer symbols) {
+		this.symbols = symbols;
+	}
+	
+	/**
+	 * Analyses the tokens edited since the last analysis.
+	 * @return the tree, which is updated by the next analyses.
+	 * @throws SyntacticException if the code is invalid.
+	 */
+	public SyntaxTree analyse()
+	{
+		int size = this.symbols.size();
+		int common = Math.min(size, this.count);
+		
+		// The edited tokens are after the same ones at the beginning and
+		// before the same ones at the end
+		int from = 0;
+		while (from < common && this.ids[from] == this.symbols.getId(from)) from++;
+		
+		int same = 0;
+		while (same < common - from && this.ids[this.count - 1 - same] == this.symbols.getId(size - 1 - same)) same++;
+		
+		int to = this.count - same;
+		int delta = size - this.count;
+		
+		// Keeps the ids of the edited tokens
+		if (size > this.ids.length) this.ids = Arrays.copyOf(this.ids, Math.max(size, this.ids.length * 2));
+		System.arraycopy(this.ids, to, this.ids, to + delta, same);
+		for (int i = from; i < to + delta; i++) this.ids[i] = this.symbols.getId(i);
+		this.count = size;
+		
+		SyntaxTree tree = this.tree;
+		this.tree = null;
+		
+		if (tree != null && from == to && delta == 0) {
+			this.analysed = 0;
+		}
+		else if (tree == null || !analyse(tree, from, to, delta))
+		{
+			this.analysed = size;
+			tree = new SyntacticAnalyser(this.symbols).analyseTree();
+		}
+		
+		return this.tree = tree;
+	}
+	
+	/**
+	 * Returns the number of tokens analysed by the last analysis, which is
+	 * the number of tokens of the part analysed again after an edit.
+	 */
+	public int getAnalysed() {
+		return this.analysed;
+	}
+	
+	/**
+	 * Analyses the smallest part around the edited tokens again, replacing
+	 * its subtree.
+	 * @param from the index of the first token edited.
+	 * @param to the index after the last token edited, before the edit.
+	 * @param delta the number of tokens added, or removed if negative.
+	 * @return false if there's no such part, or it doesn't match as before.
+	 */
+	private boolean analyse(SyntaxTree tree, int from, int to, int delta)
+	{
+		int part = -1;
+		
+		for (int node = tree.getRoot(); node >= 0; )
+		{
+			int child = tree.getFirstChild(node);
+			
+			// The tokens of the node around the edited ones are not edited
+			while (child >= 0 && !(start(tree, child) < from && to < tree.getEnd(child)))
+				child = tree.getNextSibling(child);
+			
+			if (child >= 0 && (tree.getKind(child) == NodeKind.Procedure || tree.getKind(child) == NodeKind.Compound))
+				part = child;
+			
+			node = child;
+		}
+		
+		if (part < 0) return false;
+		
+		int start = start(tree, part);
+		SyntaxTree subtree = new SyntaxTree(this.symbols);
+		
+		try {
+			int end = new SyntacticAnalyser(this.symbols).matchPart(tree.getKind(part), start, subtree);
+			
+			if (end != tree.getEnd(part) + delta || subtree.mark() != 1) return false;
+			
+			this.analysed = end - start;
+		}
+		catch (SyntacticException | IndexOutOfBoundsException e) {
+			return false;
+		}
+		
+		tree.replace(part, subtree, delta);
+		return true;
+	}
+	
+	/**
+	 * Returns the index of the first token of a node, which may be after
+	 * the actual one, as the tree doesn't keep the parentheses.
+	 */
+	private static int start(SyntaxTree tree, int node)
+	{
+		// The 'procedure' is before the identifier
+		if (tree.getKind(node) == NodeKind.Procedure) return tree.getToken(node) - 1;
+		
+		int start = tree.getToken(node);
+		
+		for (int child = tree.getFirstChild(node); child >= 0; child = tree.getFirstChild(child))
+			start = Math.min(start, tree.getToken(child));
+		
+		return start;
+	}
+}
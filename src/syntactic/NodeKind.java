@@ -0,0 +1,40 @@
+package syntactic;
+
+/**
+ * Represents the kinds of nodes of a {@link SyntaxTree}, with the token
+ * each one refers to and its children, in order.
+ */
+public enum NodeKind {
+	/** The program identifier: declarations, procedures and the compound command. */
+	Program,
+	/** The type: the identifiers declared. */
+	Declaration,
+	/** An identifier declared, with no children. */
+	Identifier,
+	/** The procedure identifier: parameters, declarations, procedures and the compound command. */
+	Procedure,
+	/** The token after the procedure identifier: the declarations. */
+	Parameters,
+	/** The 'begin': the commands. */
+	Compound,
+	/** The ':=': the variable and the expression. */
+	Assignment,
+	/** The procedure identifier: the expressions of the arguments. */
+	Call,
+	/** The 'if': the condition, the command and, if there's an 'else', its command. */
+	If,
+	/** The 'while': the condition and the command. */
+	While,
+	/** The 'do': the command and the condition. */
+	DoWhile,
+	/** The token where a command was expected but none was found, with no children. */
+	Empty,
+	/** The operator: the left and right operands. */
+	Binary,
+	/** The sign or 'not': the operand. */
+	Unary,
+	/** A variable or procedure identifier, with no children. */
+	Variable,
+	/** A literal value, with no children. */
+	Value
+}
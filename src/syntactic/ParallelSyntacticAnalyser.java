@@ -0,0 +1,193 @@
+package syntactic;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import lexical.NameTable;
+import lexical.Symbol;
+import lexical.TokenBuffer;
+
+/**
+ * Analyses a code syntactically, matching the procedures declared in the
+ * scope of the program in parallel.
+ * The bounds of the procedure declarations are scanned first by their
+ * 'procedure', 'begin' and 'end' tokens. Then runs of them are matched on a
+ * {@link ForkJoinPool}, each one recording its events in an {@link EventLog}
+ * and its nodes in a tree of its own. They're merged in order, replaying the
+ * events to the listener, so it gets the same events and exceptions of
+ * {@link SyntacticAnalyser}. From the first run that doesn't match, or that
+ * doesn't end where it was scanned, the procedures are matched sequentially,
+ * throwing the same exception.
+ */
+public class ParallelSyntacticAnalyser extends SyntacticAnalyser
+{
+	// The approximate number of tokens of each run of procedures.
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 12;
+
+	private final ForkJoinPool pool;
+	private final int chunkSize;
+
+	public ParallelSyntacticAnalyser(List<Symbol> symbols, SyntacticListener listener, ForkJoinPool pool, int chunkSize)
+	{
+		super(symbols, listener);
+		this.pool = pool;
+		this.chunkSize = Math.max(chunkSize, 1);
+	}
+
+	public ParallelSyntacticAnalyser(List<Symbol> symbols, SyntacticListener listener) {
+		this(symbols, listener, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+	}
+
+	public ParallelSyntacticAnalyser(List<Symbol> symbols) {
+		this(symbols, new EmptySyntaticListener());
+	}
+
+	@Override
+	int matchProgramProcedureDeclarations(int i)
+	{
+		TokenBuffer symbols = getSymbols();
+
+		// The index of the first token of each procedure declaration, and
+		// the one where the scan stops
+		int[] procedures = new int[16];
+		int count = 0;
+		procedures[0] = i;
+
+		for (int end; (end = scan(symbols, procedures[count])) >= 0; )
+		{
+			if (++count == procedures.length) procedures = Arrays.copyOf(procedures, count * 2);
+			procedures[count] = end;
+		}
+
+		// The first procedure of each run, and the end
+		int[] bounds = new int[16];
+		int runs = 0;
+
+		for (int procedure = 0; procedure < count; procedure++)
+		{
+			if (runs == 0 || procedures[procedure] - procedures[bounds[runs - 1]] >= this.chunkSize)
+			{
+				if (runs + 1 >= bounds.length) bounds = Arrays.copyOf(bounds, bounds.length * 2);
+				bounds[runs++] = procedure;
+			}
+		}
+
+		bounds[runs] = count;
+
+		if (runs < 2) return super.matchProgramProcedureDeclarations(i);
+
+		EventLog[] logs = new EventLog[runs];
+		SyntaxTree[] trees = new SyntaxTree[runs];
+		boolean[] matched = new boolean[runs];
+		boolean listening = getListener().getEvents() != SyntacticListener.NONE;
+		this.pool.invoke(new Task(symbols, listening, getTree() != null, procedures, bounds, matched, logs, trees, 0, runs));
+		
+		for (int run = 0; run < runs; run++)
+		{
+			if (!matched[run])
+				return super.matchProgramProcedureDeclarations(procedures[bounds[run]]);
+			
+			if (listening) logs[run].replay(getListener());
+			if (getTree() != null) getTree().append(trees[run]);
+		}
+
+		return super.matchProgramProcedureDeclarations(procedures[count]);
+	}
+
+	/**
+	 * Scans the bounds of the procedure declaration at an index, counting
+	 * the 'begin' and 'end' tokens of the bodies, and the procedures declared
+	 * in it, which bodies end before it does.
+	 * @return the index after the ';' that follows it, or -1 if there's no
+	 * 		procedure declaration or the code ends before its bounds.
+	 */
+	private static int scan(TokenBuffer symbols, int i)
+	{
+		if (i >= symbols.size() || symbols.getId(i) != NameTable.PROCEDURE)
+			return -1;
+
+		// The procedures which bodies haven't ended and the depth of 'begin'
+		int pending = 1;
+		int depth = 0;
+
+		for (i++; i < symbols.size(); i++)
+		{
+			int id = symbols.getId(i);
+
+			if (id == NameTable.PROCEDURE && depth == 0) pending++;
+			else if (id == NameTable.BEGIN) depth++;
+			else if (id == NameTable.END && depth > 0 && --depth == 0 && --pending == 0)
+			{
+				return i + 1 < symbols.size() && symbols.getId(i + 1) == NameTable.SEMICOLON
+						? i + 2 : -1;
+			}
+		}
+
+		return -1;
+	}
+
+	@SuppressWarnings("serial")
+	private static class Task extends RecursiveAction
+	{
+		private final TokenBuffer symbols;
+		private final boolean listening;
+		private final boolean building;
+		private final int[] procedures;
+		private final int[] bounds;
+		private final boolean[] matched;
+		private final EventLog[] logs;
+		private final SyntaxTree[] trees;
+		private final int from;
+		private final int to;
+		
+		Task(TokenBuffer symbols, boolean listening, boolean building, int[] procedures, int[] bounds,
+				boolean[] matched, EventLog[] logs, SyntaxTree[] trees, int from, int to)
+		{
+			this.symbols = symbols;
+			this.listening = listening;
+			this.building = building;
+			this.procedures = procedures;
+			this.bounds = bounds;
+			this.matched = matched;
+			this.logs = logs;
+			this.trees = trees;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (this.to - this.from > 1)
+			{
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new Task(this.symbols, this.listening, this.building, this.procedures, this.bounds,
+								this.matched, this.logs, this.trees, this.from, middle),
+						new Task(this.symbols, this.listening, this.building, this.procedures, this.bounds,
+								this.matched, this.logs, this.trees, middle, this.to));
+				return;
+			}
+			
+			// The events aren't recorded if the listener isn't interested in any
+			EventLog log = this.listening ? new EventLog(this.symbols, false) : null;
+			SyntaxTree tree = this.building ? new SyntaxTree(this.symbols) : null;
+			SyntacticAnalyser analyser = new SyntacticAnalyser(this.symbols, log);
+
+			try {
+				for (int procedure = this.bounds[this.from]; procedure < this.bounds[this.from + 1]; procedure++)
+				{
+					// Each declaration is followed by the ';' it was scanned to
+					if (analyser.matchPart(NodeKind.Procedure, this.procedures[procedure], tree) != this.procedures[procedure + 1] - 1)
+						return;
+				}
+				
+				this.matched[this.from] = true;
+				this.logs[this.from] = log;
+				this.trees[this.from] = tree;
+			}
+			catch (SyntacticException | IndexOutOfBoundsException e) { }
+		}
+	}
+}
@@ -1,77 +1,172 @@
 package syntactic;
 
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 
-import lexical.Rules;
+import lexical.NameTable;
 import lexical.Symbol;
+import lexical.TokenBuffer;
+import lexical.TokenCursor;
 import lexical.TokenType;
 import utils.Log;
 
 public class SyntacticAnalyser
 {
-	public static final Set<String> TYPES = new HashSet<String>();
+	// The first tokens of the commands that aren't assignments or procedure
+	// calls: compound, if-then-else, while-do and do-while
+	private static final int[] COMMANDS = { NameTable.BEGIN, NameTable.IF, NameTable.WHILE, NameTable.DO };
+	
+	// The precedence levels of the operators, from the lowest
+	private static final int RELATIONAL = 1;
+	private static final int ADDITIVE = 2;
+	private static final int MULTIPLICATIVE = 3;
+	
+	// The precedence of each operator by its id, or 0 if it isn't one
+	private static final int[] PRECEDENCE = new int[NameTable.OR + 1];
 	
-	// Initialization
 	static {
-		TYPES.add("integer");
-		TYPES.add("real");
-		TYPES.add("boolean");
+		for (int id = 0; id < PRECEDENCE.length; id++)
+		{
+			if (NameTable.isRelationalOperator(id) || NameTable.isLogicalOperator(id))
+				PRECEDENCE[id] = RELATIONAL;
+			
+			else if (NameTable.isAdditiveOperator(id))
+				PRECEDENCE[id] = ADDITIVE;
+			
+			else if (NameTable.isMultiplicativeOperator(id))
+				PRECEDENCE[id] = MULTIPLICATIVE;
+		}
 	}
 	
-	private List<Symbol> symbols;
+	private TokenBuffer symbols;
+	// The symbols being read from a source, if they aren't all in memory
+	private TokenCursor cursor;
 	private SyntacticListener listener;
+	// The mask of the events the listener is interested in
+	private int events;
+	// The tree being built, if any
+	private SyntaxTree tree;
 	
 	public SyntacticAnalyser(List<Symbol> symbols, SyntacticListener listener)
 	{
-		this.symbols = symbols;
-		this.listener = listener;
+		this.symbols = TokenBuffer.of(symbols);
+		setListener(listener);
 	}
 	
 	public SyntacticAnalyser(List<Symbol> symbols) {
 		this(symbols, new EmptySyntaticListener());
 	}
 	
+	/**
+	 * Analyses the symbols as they're read from a source, such as a
+	 * {@link lexical.TokenStream}, keeping only the ones that may still be
+	 * read in a {@link TokenCursor}. As the tree refers to every symbol,
+	 * it can't be built.
+	 */
+	public SyntacticAnalyser(Iterator<Symbol> symbols, SyntacticListener listener)
+	{
+		this.cursor = new TokenCursor(symbols);
+		setListener(listener);
+	}
+	
+	/**
+	 * Keeps a listener, or none if it's null, and the events it's
+	 * interested in.
+	 */
+	private void setListener(SyntacticListener listener)
+	{
+		this.listener = listener == null ? new EmptySyntaticListener() : listener;
+		this.events = this.listener.getEvents();
+	}
+	
 	// Helpers
-	private boolean 	has(int i) 						{ return this.symbols.size() > i; }
-	private Symbol 		get(int i) 						{ return this.symbols.get(i); }
-	private String 		getToken(int i) 				{ return get(i).getToken(); }
-	private TokenType 	getType(int i) 					{ return get(i).getType(); }
-	private boolean 	isToken(int i, String token) 	{ return getToken(i).equals(token); }
+	private boolean 	has(int i) 						{ return this.cursor == null ? this.symbols.size() > i : this.cursor.has(i); }
+	private Symbol 		get(int i) 						{ return this.cursor == null ? this.symbols.get(i) : this.cursor.get(i); }
+	private int 		getId(int i) 					{ return this.cursor == null ? this.symbols.getId(i) : this.cursor.getId(i); }
+	private TokenType 	getType(int i) 					{ return this.cursor == null ? this.symbols.getType(i) : this.cursor.getType(i); }
+	private boolean 	isToken(int i, int id) 			{ return getId(i) == id; }
 	private boolean 	isType(int i, TokenType type) 	{ return getType(i) == type; }
-	private int 		at(int i) 						{ return get(i).getAt(); }
+	private int 		at(int i) 						{ return this.cursor == null ? this.symbols.getAt(i) : this.cursor.getAt(i); }
 	private Symbol 		last(int i) 					{ while (!has(i)) i--; return get(i); }
+	private int 		precedence(int i) 				{ int id = getId(i); return id < PRECEDENCE.length ? PRECEDENCE[id] : 0; }
+	
+	// Tree helpers
+	private int 		mark() 									{ return this.tree == null ? 0 : this.tree.mark(); }
+	private void 		reset(int mark) 						{ if (this.tree != null) this.tree.reset(mark); }
+	private void 		node(NodeKind kind, int i, int start, int end) 	{ if (this.tree != null) this.tree.add(kind, i, start, end); }
+	private void 		leaf(NodeKind kind, int i) 						{ node(kind, i, mark(), i + 1); }
+	
+	// Cursor helpers, which keep the symbols around the positions that may
+	// be read again after the ones ahead of them
+	private void 		hold(int i) 	{ if (this.cursor != null) this.cursor.hold(i); }
+	private void 		keep(int i) 	{ if (this.cursor != null) this.cursor.keep(i); }
+	private void 		pin(int i) 		{ hold(i); keep(i); }
+	private void 		release() 		{ if (this.cursor != null) this.cursor.release(); }
+	private void 		rewind() 		{ if (this.cursor != null) this.cursor.rewind(); }
+	
+	// Listener helpers
+	private boolean 	listens(int event) 	{ return (this.events & event) != 0; }
+	
+	/**
+	 * Analyses the code, as {@link #analyse()}, and builds its syntax tree.
+	 * @return the tree.
+	 */
+	public SyntaxTree analyseTree()
+	{
+		if (this.cursor != null)
+			throw new IllegalStateException("The tree can't be built while reading the symbols from a source");
+		
+		this.tree = new SyntaxTree(this.symbols);
+		
+		try {
+			analyse();
+			return this.tree;
+		}
+		finally {
+			this.tree = null;
+		}
+	}
 	
 	public void analyse()
 	{
 		int i = 0;
 		
 		try {
-			if (!isToken(i, "program"))
+			if (!isToken(i, NameTable.PROGRAM))
 				throw new SyntacticException("Missing key word 'program'", get(i));
 			
 			if (!isType(++i, TokenType.Identifier))
 				throw new SyntacticException("Missing program identifier", get(i));
 			
-			this.listener.onVariableDeclaration(i, get(i));
-			this.listener.onTypeDefinition(i, get(i - 1));
-			this.listener.onScopeBegin(i - 1, at(i - 1));
+			if (listens(SyntacticListener.VARIABLE_DECLARATION)) this.listener.onVariableDeclaration(i, get(i));
+			if (listens(SyntacticListener.TYPE_DEFINITION)) this.listener.onTypeDefinition(i, get(i - 1));
+			if (listens(SyntacticListener.SCOPE_BEGIN)) this.listener.onScopeBegin(i - 1, at(i - 1));
 			
-			if (!getToken(++i).equals(";"))
+			if (!isToken(++i, NameTable.SEMICOLON))
 				throw new SyntacticException("Missing ';'", get(i));
 			
+			// The position where each part begins is reported if the file ends
+			pin(i);
 			i = matchVariableDeclarations(i + 1);
-			i = matchProcedureDeclarations(i);
+			release();
+			
+			pin(i);
+			i = matchProgramProcedureDeclarations(i);
+			release();
+			
+			pin(i);
 			i = matchCompoundCommand(i);
+			release();
 			
-			this.listener.onScopeEnd(i - 1, at(i - 1));
-
-			if (!getToken(i).equals("."))
+			if (listens(SyntacticListener.SCOPE_END)) this.listener.onScopeEnd(i - 1, at(i - 1));
+			
+			if (!isToken(i, NameTable.DOT))
 				throw new SyntacticException("Missing '.' at end of file", get(i));
 			
 			if (has(i + 1))
 				throw new SyntacticException("Remaining code after program end");
+			
+			node(NodeKind.Program, 1, 0, i + 1);
 		}
 		catch (IndexOutOfBoundsException e) {
 			throw new SyntacticException("Unexpected end of file", last(i));
@@ -80,7 +175,7 @@ public class SyntacticAnalyser
 	
 	private int matchVariableDeclarations(int i)
 	{
-		if (isToken(i, "var"))
+		if (isToken(i, NameTable.VAR))
 			return matchVariableDeclarationList(i + 1, true);
 		
 		return i;
@@ -88,98 +183,147 @@ public class SyntacticAnalyser
 	
 	private int matchVariableDeclarationList(int i, boolean primary)
 	{
-		int state = i;
-		
-		if ((i = matchIdentifiersList(i)) > state)
+		for (;; primary = false)
 		{
-			if (!getToken(i).equals(":"))
+			int state = i;
+			int start = mark();
+			
+			if ((i = matchIdentifiersList(i)) == state)
+			{
+				if (primary) throw new SyntacticException("Missing identifier", get(i));
+				return i;
+			}
+			
+			if (!isToken(i, NameTable.COLON))
 				throw new SyntacticException("Missing ':'", get(i));
 			
-			if (!TYPES.contains(getToken(++i)))
+			if (!NameTable.isTypeName(getId(++i)))
 				throw new SyntacticException("Invalid or missing type", get(i));
 			
-			this.listener.onTypeDefinition(i, get(i));
+			if (listens(SyntacticListener.TYPE_DEFINITION)) this.listener.onTypeDefinition(i, get(i));
+			node(NodeKind.Declaration, i, start, i + 1);
 			
-			if (!getToken(++i).equals(";"))
+			if (!isToken(++i, NameTable.SEMICOLON))
 				throw new SyntacticException("Missing ';'", get(i));
 			
-			return matchVariableDeclarationList(i + 1, false);
-		}
-		else if (primary) {
-			throw new SyntacticException("Missing identifier", get(i));
+			i++;
 		}
-		
-		return i;
 	}
 	
 	private int matchIdentifiersList(int i)
 	{
 		if (!isType(i, TokenType.Identifier)) return i;
-
-		this.listener.onVariableDeclaration(i, get(i));
 		
-		if (isToken(++i, ","))
+		while (true)
 		{
-			int state = i + 1;
+			if (listens(SyntacticListener.VARIABLE_DECLARATION)) this.listener.onVariableDeclaration(i, get(i));
+			leaf(NodeKind.Identifier, i);
 			
-			if ((i = matchIdentifiersList(state)) == state)
+			if (!isToken(++i, NameTable.COMMA)) return i;
+			
+			if (!isType(++i, TokenType.Identifier))
 				throw new SyntacticException("Missing identifier", get(i));
 		}
+	}
+	
+	/**
+	 * Matches the procedures declared in the scope of the program, which
+	 * a subclass may match in another way, such as in parallel.
+	 */
+	int matchProgramProcedureDeclarations(int i) {
+		return matchProcedureDeclarations(i);
+	}
+	
+	/**
+	 * Matches a procedure declaration or a compound command by itself, as a
+	 * part of a code that is analysed in parts.
+	 * @param kind {@link NodeKind#Procedure} or {@link NodeKind#Compound}.
+	 * @param tree the tree where its nodes are added, or null.
+	 * @return the index after the part, or the same if there's no
+	 * 		procedure declaration.
+	 */
+	int matchPart(NodeKind kind, int i, SyntaxTree tree)
+	{
+		this.tree = tree;
 		
-		return i;
+		try {
+			return kind == NodeKind.Procedure ? matchProcedureDeclaration(i) : matchCompoundCommand(i);
+		}
+		finally {
+			this.tree = null;
+		}
+	}
+	
+	TokenBuffer getSymbols() {
+		return this.symbols;
+	}
+	
+	SyntacticListener getListener() {
+		return this.listener;
+	}
+	
+	/**
+	 * Returns the tree being built, or null.
+	 */
+	SyntaxTree getTree() {
+		return this.tree;
 	}
 	
 	private int matchProcedureDeclarations(int i)
 	{
-		int state = i;
-		i = matchProcedureDeclaration(i);
-		
-		if (i > state)
+		while (true)
 		{
-			if (!isToken(i, ";"))
+			int state = i;
+			
+			if ((i = matchProcedureDeclaration(i)) == state) return i;
+			
+			if (!isToken(i, NameTable.SEMICOLON))
 				throw new SyntacticException("Missing ';'", get(i));
 			
-			i = matchProcedureDeclarations(i + 1);
+			i++;
 		}
-		
-		return i;
 	}
 	
 	private int matchProcedureDeclaration(int i)
 	{
-		if (!isToken(i, "procedure"))
+		if (!isToken(i, NameTable.PROCEDURE))
 			return i;
 		
 		if (!isType(++i, TokenType.Identifier))
 			throw new SyntacticException("Missing procedure identifier", get(i));
 		
-		this.listener.onProcedureDeclaration(i, get(i));
-		this.listener.onScopeBegin(i, at(i));
-		this.listener.onProcedureParametersDeclarationBegin(i + 1, get(i + 1));
-
+		int name = i;
+		int start = mark();
+		
+		if (listens(SyntacticListener.PROCEDURE_DECLARATION)) this.listener.onProcedureDeclaration(i, get(i));
+		if (listens(SyntacticListener.SCOPE_BEGIN)) this.listener.onScopeBegin(i, at(i));
+		if (listens(SyntacticListener.PARAMETERS_BEGIN)) this.listener.onProcedureParametersDeclarationBegin(i + 1, get(i + 1));
+		
 		i = matchParameters(i + 1);
 		
-		this.listener.onProcedureParametersDeclarationEnd(i, get(i));
+		if (listens(SyntacticListener.PARAMETERS_END)) this.listener.onProcedureParametersDeclarationEnd(i, get(i));
+		node(NodeKind.Parameters, name + 1, start, i);
 		
-		if (!isToken(i, ";"))
+		if (!isToken(i, NameTable.SEMICOLON))
 			throw new SyntacticException("Missing ';'", get(i));
 		
 		i = matchVariableDeclarations(i + 1);
 		i = matchProcedureDeclarations(i);
 		i = matchCompoundCommand(i);
 		
-		this.listener.onScopeEnd(i - 1, at(i - 1));
+		if (listens(SyntacticListener.SCOPE_END)) this.listener.onScopeEnd(i - 1, at(i - 1));
+		node(NodeKind.Procedure, name, start, i);
 		
 		return i;
 	}
 	
 	private int matchParameters(int i)
 	{
-		if (isToken(i, "("))
+		if (isToken(i, NameTable.OPEN_PARENTHESIS))
 		{
 			i = matchParametersList(i + 1);
 			
-			if (!isToken(i, ")"))
+			if (!isToken(i, NameTable.CLOSE_PARENTHESIS))
 				throw new SyntacticException("Missing ')'", get(i));
 			
 			return i + 1;
@@ -189,145 +333,200 @@ public class SyntacticAnalyser
 	
 	private int matchParametersList(int i)
 	{
-		int state = i;
-		
-		if ((i = matchIdentifiersList(i)) == state)
-			return i;
-		
-		if (!isToken(i, ":"))
-			throw new SyntacticException("Missing ':'", get(i));
-		
-		if (!TYPES.contains(getToken(++i)))
-			throw new SyntacticException("Invalid or missing type", get(i));
-		
-		this.listener.onTypeDefinition(i, get(i));
-		
-		return isToken(++i, ";") ? matchParametersList(i + 1) : i;
+		while (true)
+		{
+			int state = i;
+			int start = mark();
+			
+			if ((i = matchIdentifiersList(i)) == state)
+				return i;
+			
+			if (!isToken(i, NameTable.COLON))
+				throw new SyntacticException("Missing ':'", get(i));
+			
+			if (!NameTable.isTypeName(getId(++i)))
+				throw new SyntacticException("Invalid or missing type", get(i));
+			
+			if (listens(SyntacticListener.TYPE_DEFINITION)) this.listener.onTypeDefinition(i, get(i));
+			node(NodeKind.Declaration, i, start, i + 1);
+			
+			if (!isToken(++i, NameTable.SEMICOLON)) return i;
+			
+			i++;
+		}
 	}
 	
 	private int matchCompoundCommand(int i)
 	{
-		if (!isToken(i, "begin"))
+		if (!isToken(i, NameTable.BEGIN))
 			throw new SyntacticException("Missing 'begin' command", get(i));
 		
+		int begin = i;
+		int start = mark();
+		
 		i = matchCommandList(i + 1);
 		
-		if (!isToken(i, "end"))
+		if (!isToken(i, NameTable.END))
 			throw new SyntacticException("Missing 'end' command", get(i));
 		
+		node(NodeKind.Compound, begin, start, i + 1);
+		
 		return i + 1;
 	}
 	
 	private int matchCommandList(int i)
 	{
-		int status = i;
-		
-		if ((i = matchCommand(i)) <= status)
-			return status;
-		
-		if (isToken(i, ";"))
-			return matchCommandList(i + 1);
+		while (true)
+		{
+			int status = i;
 			
-		return i;
+			if ((i = matchCommand(i)) <= status)
+				return status;
+			
+			if (!isToken(i, NameTable.SEMICOLON))
+				return i;
+			
+			i++;
+		}
 	}
 	
 	private int matchCommand(int i)
 	{
 		if (isType(i, TokenType.Identifier))
 		{
-			Log.d(1, "Command assignment BEGIN (" + (i - 1) + ")");
-			this.listener.onExpressionBegin(i - 1, get(i - 1));
-			
 			i = matchIdentifier(i);
 			
 			if (!isType(i, TokenType.AssignmentCommand))
 				return matchProcedureCall(i - 1);
 			
-			this.listener.onVariable(i - 1, get(i - 1));
-			this.listener.onOperator(i, get(i));
+			int assignment = i;
+			Symbol symbol = listens(SyntacticListener.OPERATOR) ? get(i) : null;
+			int start = mark();
+			
+			if (listens(SyntacticListener.VARIABLE)) this.listener.onVariable(i - 1, get(i - 1));
+			leaf(NodeKind.Variable, i - 1);
 			
 			i = matchExpression(i + 1);
 			
-			Log.d(1, "Command assignment END (" + i + ")");
-			this.listener.onExpressionEnd(i, get(i));
+			if (Log.DEBUG) Log.d(1, "Command assignment (" + assignment + ")");
+			if (listens(SyntacticListener.OPERATOR)) this.listener.onOperator(assignment, symbol);
+			node(NodeKind.Assignment, assignment, start, i);
 			
 			return i;
 		}
 		
-		// Inner compound command
-		try {
-			return matchCompoundCommand(i);
-		}
-		catch (SyntacticException e) {
-			if (this.listener != null) this.listener.matchIndex(i);
-		}
+		int command = 0;
+		while (command < COMMANDS.length && !isToken(i, COMMANDS[command])) command++;
 		
-		// If-then-else
-		try {
-			int inner = i;
-			
-			if (!isToken(inner, "if"))
-				throw new SyntacticException("Missing 'if' statement", get(inner));
-			
-			inner = matchExpression(inner + 1);
-			
-			this.listener.onControlCondition(inner - 1, get(inner - 1));
-			
-			if (!isToken(inner, "then"))
-				throw new SyntacticException("Missing 'then' statement", get(inner));
-			
-			inner = matchCommand(inner + 1);
-			return matchElse(inner);
-		}
-		catch (SyntacticException e) {
-			if (this.listener != null) this.listener.matchIndex(i);
-		}
+		// The commands before the one selected by the token don't match
+		if (listens(SyntacticListener.MATCH_INDEX))
+			for (int k = 0; k < command; k++) this.listener.matchIndex(i);
 		
-		// While-do
-		try {
-			int inner = i;
-			
-			if (!isToken(inner, "while"))
-				throw new SyntacticException("Missing 'while' statement", get(inner));
-			
-			inner = matchExpression(inner + 1);
-			
-			this.listener.onControlCondition(inner - 1, get(inner - 1));
-			
-			if (!isToken(inner, "do"))
-				throw new SyntacticException("Missing 'then' statement", get(inner));
-			
-			return matchCommand(inner + 1);
-		}
-		catch (SyntacticException e) {
-			if (this.listener != null) this.listener.matchIndex(i);
-		}
+		if (command == COMMANDS.length) return i;
+		
+		int mark = mark();
+		
+		// If the command doesn't match, its token is read again, and so is
+		// the condition of a 'while', which may be the end of a do-while
+		hold(i);
+		if (command != 2) keep(i);
 		
-		// Do-while
 		try {
-			int inner = i;
-			
-			if (!isToken(inner, "do"))
-				throw new SyntacticException("Missing 'do' statement", get(inner));
-			
-			inner = matchCommand(inner + 1);
-			
-			if (!isToken(inner, "while"))
-				throw new SyntacticException("Missing 'then' statement", get(inner));
-			
-			inner = matchExpression(inner + 1);
-			
-			this.listener.onControlCondition(inner - 1, get(inner - 1));
+			switch (command)
+			{
+				case 0: return matchCompoundCommand(i);
+				case 1: return matchIfCommand(i);
+				case 2: return matchWhileCommand(i);
+				default: return matchDoWhileCommand(i);
+			}
+		}
+		catch (SyntacticException e)
+		{
+			// The selected command and the ones after it don't match
+			if (listens(SyntacticListener.MATCH_INDEX))
+				for (int k = command; k < COMMANDS.length; k++) this.listener.matchIndex(i);
+			reset(mark);
+			rewind();
 			
-			return inner;
+			return i;
 		}
-		catch (SyntacticException e) {
-			if (this.listener != null) this.listener.matchIndex(i);
+		finally {
+			release();
 		}
+	}
+	
+	private int matchIfCommand(int i)
+	{
+		int command = i;
+		int start = mark();
+		
+		i = matchExpression(i + 1);
+		
+		if (listens(SyntacticListener.CONTROL_CONDITION)) this.listener.onControlCondition(i - 1, get(i - 1));
+		
+		if (!isToken(i, NameTable.THEN))
+			throw new SyntacticException("Missing 'then' statement", get(i));
+		
+		i = matchInnerCommand(i + 1);
+		i = matchElse(i);
+		
+		node(NodeKind.If, command, start, i);
+		
+		return i;
+	}
+	
+	private int matchWhileCommand(int i)
+	{
+		int command = i;
+		int start = mark();
+		
+		i = matchExpression(i + 1);
+		
+		if (listens(SyntacticListener.CONTROL_CONDITION)) this.listener.onControlCondition(i - 1, get(i - 1));
+		
+		if (!isToken(i, NameTable.DO))
+			throw new SyntacticException("Missing 'do' statement", get(i));
+		
+		keep(i);
+		i = matchInnerCommand(i + 1);
+		
+		node(NodeKind.While, command, start, i);
+		
+		return i;
+	}
+	
+	private int matchDoWhileCommand(int i)
+	{
+		int command = i;
+		int start = mark();
+		
+		i = matchInnerCommand(i + 1);
+		
+		if (!isToken(i, NameTable.WHILE))
+			throw new SyntacticException("Missing 'while' statement", get(i));
+		
+		i = matchExpression(i + 1);
+		
+		if (listens(SyntacticListener.CONTROL_CONDITION)) this.listener.onControlCondition(i - 1, get(i - 1));
+		node(NodeKind.DoWhile, command, start, i);
 		
 		return i;
 	}
 	
+	/**
+	 * Matches the command of a control command, adding an empty node to
+	 * the tree if there's none.
+	 */
+	private int matchInnerCommand(int i)
+	{
+		int start = mark();
+		int end = matchCommand(i);
+		
+		if (mark() == start) node(NodeKind.Empty, i, start, i);
+		
+		return end;
+	}
+	
 	private int matchIdentifier(int i)
 	{
 		if (!has(i) || !isType(i, TokenType.Identifier))
@@ -336,125 +535,130 @@ public class SyntacticAnalyser
 		return i + 1;
 	}
 	
-	private int matchExpression(int i)
+	/**
+	 * Matches an expression by precedence climbing over the operators of
+	 * {@link #PRECEDENCE}. The operators are reported after their operands,
+	 * so the listener only sees them where they combine two operands.
+	 */
+	private int matchExpression(int i) {
+		return matchOperation(i, RELATIONAL);
+	}
+	
+	/**
+	 * Matches the operands and operators of an expression from a level of
+	 * precedence.
+	 * A sign is only allowed at the beginning of a simple expression and
+	 * applies to its first term. As a relational or logical operator isn't
+	 * associative, only one of them is matched, and it's left out of the
+	 * expression if its right operand doesn't match.
+	 * @param level the lowest precedence of the operators to match.
+	 */
+	private int matchOperation(int i, int level)
 	{
-		Log.d(1, "Expression BEGIN (" + (i - 1) + ")");
-		this.listener.onExpressionBegin(i - 1, get(i - 1));
+		int left = mark();
 		
-		i = matchSimpleExpression(i);
+		if (level <= ADDITIVE && !has(i))
+			throw new SyntacticException("Missing expression", last(i));
 		
-		try {
-			int inner = i;
-			
-			if (!has(inner) || !(
-					   Rules.OPERATORS_RELATIONAL.contains(getToken(inner))
-					|| Rules.OPERATORS_LOGICAL.contains(getToken(inner))))
-				throw new SyntacticException("Missing relational operator", last(inner));
-			
-			this.listener.onOperator(inner, get(inner));
-			
-			inner = matchSimpleExpression(inner + 1);
-			
-			Log.d(1, "Expression END (" + inner + ")");
-			this.listener.onExpressionEnd(inner, get(inner));
+		if (level <= ADDITIVE && (isToken(i, NameTable.PLUS) || isToken(i, NameTable.MINUS)))
+		{
+			int sign = i;
 			
-			return inner;
+			i = matchOperation(i + 1, MULTIPLICATIVE);
+			node(NodeKind.Unary, sign, left, i);
 		}
-		catch (SyntacticException e) {
-			if (this.listener != null) this.listener.matchIndex(i);
+		else {
+			i = matchFactor(i);
+		}
+		
+		for (int precedence; has(i) && (precedence = precedence(i)) >= level; )
+		{
+			int operator = i;
+			Symbol symbol = listens(SyntacticListener.OPERATOR) ? get(i) : null;
+			
+			if (precedence == RELATIONAL)
+			{
+				// The operator is read again if its right operand doesn't
+				// match, and the token after it is reported by a procedure
+				// call whose arguments end at the operator
+				hold(operator);
+				keep(operator + 1);
+				
+				try {
+					i = matchOperation(i + 1, ADDITIVE);
+				}
+				catch (SyntacticException e)
+				{
+					// Without the relational part
+					if (listens(SyntacticListener.MATCH_INDEX)) this.listener.matchIndex(operator);
+					reset(left + 1);
+					rewind();
+					
+					return operator;
+				}
+				finally {
+					release();
+				}
+			}
+			else {
+				i = matchOperation(i + 1, precedence + 1);
+			}
 			
-			Log.d(1, "Expression END (" + i + ")");
-			this.listener.onExpressionEnd(i, get(i));
+			if (listens(SyntacticListener.OPERATOR)) this.listener.onOperator(operator, symbol);
+			node(NodeKind.Binary, operator, left, i);
 			
-			return i;
+			if (precedence == RELATIONAL) return i;
 		}
+		
+		return i;
 	}
 	
 	private int matchProcedureCall(int i)
 	{
+		// The token after the identifier is reported if an argument doesn't
+		// match, and the one after the last argument if it isn't a ')'
+		pin(i + 1);
+		
 		try {
 			i = matchIdentifier(i);
 			
-			this.listener.onProcedure(i - 1, get(i - 1));
+			int name = i - 1;
+			int start = mark();
 			
-			Log.d(1, "Procedure parameters BEGIN (" + (i) + ")");
-			this.listener.onProcedureArgumentsBegin(i, get(i));
+			if (listens(SyntacticListener.PROCEDURE)) this.listener.onProcedure(i - 1, get(i - 1));
 			
-			if (isToken(i, "("))
+			if (Log.DEBUG) Log.d(1, "Procedure parameters BEGIN (" + (i) + ")");
+			if (listens(SyntacticListener.ARGUMENTS_BEGIN)) this.listener.onProcedureArgumentsBegin(i, get(i));
+			
+			if (isToken(i, NameTable.OPEN_PARENTHESIS))
 			{
-				if (isToken(i + 1, ")")) {
+				if (isToken(i + 1, NameTable.CLOSE_PARENTHESIS)) {
 					i += 2;
 				}
 				else {
 					i = matchExpressionList(i + 1);
 					
-					if (!isToken(i++, ")"))
+					if (!isToken(i++, NameTable.CLOSE_PARENTHESIS))
 						throw new SyntacticException("Missing delimitier ')' from procedure call", get(i - 1));
 				}
 			}
 			
-			Log.d(1, "Procedure parameters END (" + (i) + ")");
-			this.listener.onProcedureArgumentsEnd(i, get(i));
+			if (Log.DEBUG) Log.d(1, "Procedure parameters END (" + (i) + ")");
+			if (listens(SyntacticListener.ARGUMENTS_END)) this.listener.onProcedureArgumentsEnd(i, get(i));
+			node(NodeKind.Call, name, start, i);
 			
 			return i;
 		}
 		catch (SyntacticException e) {
 			throw new SyntacticException("Missing procedure call identifier", get(i));
 		}
-	}
-	
-	private int matchElse(int i) {
-		return isToken(i, "else") ? matchCommand(i + 1) : i;
-	}
-	
-	private int matchSimpleExpression(int i)
-	{
-		if (!has(i)) throw new SyntacticException("Missing expression", last(i));
-		
-		Log.d(1, "Simple expression BEGIN (" + (i - 1) + ")");
-		this.listener.onExpressionBegin(i - 1, get(i - 1));
-		
-		if (isToken(i, "+") || isToken(i, "-")) i++;
-		
-		i = matchTerm(i);
-		i = matchSimpleExpressionComplement(i);
-		
-		Log.d(1, "Simple expression END (" + i + ")");
-		this.listener.onExpressionEnd(i, get(i));
-		
-		return i;
-	}
-	
-	private int matchSimpleExpressionComplement(int i)
-	{
-		if (has(i) && Rules.OPERATORS_ADDITIVE.contains(getToken(i)))
-		{
-			this.listener.onOperator(i, get(i));
-			
-			Log.d(1, "Simple expression complement BEGIN (" + (i - 1) + ")");
-			this.listener.onExpressionBegin(i, get(i - 1));
-			
-			i = matchTerm(i + 1);
-			i = matchSimpleExpressionComplement(i);
-			
-			Log.d(1, "Simple expression complement END (" + i + ")");
-			this.listener.onExpressionEnd(i, get(i));
+		finally {
+			release();
 		}
-		
-		return i;
 	}
 	
-	private int matchTerm(int i)
-	{
-		i = matchFactor(i);
-		
-		if (Rules.OPERATORS_MULTIPLICATIVE.contains(getToken(i)))
-		{
-			this.listener.onOperator(i, get(i));
-			return matchTerm(i + 1);
-		}
-		
-		return i;
+	private int matchElse(int i) {
+		return isToken(i, NameTable.ELSE) ? matchInnerCommand(i + 1) : i;
 	}
 	
 	private int matchFactor(int i)
@@ -465,26 +669,28 @@ public class SyntacticAnalyser
 		{
 			int inner = matchIdentifier(i);
 			
-			this.listener.onVariable(i, get(i));
+			if (listens(SyntacticListener.VARIABLE)) this.listener.onVariable(i, get(i));
+			leaf(NodeKind.Variable, i);
 			
 			return inner;
 		}
-		else if (isToken(i, "("))
+		else if (isToken(i, NameTable.OPEN_PARENTHESIS))
 		{
-//			this.listener.onExpressionBegin(i, get(i));
-			
 			i = matchExpression(i + 1);
 			
-			if (!isToken(i, ")"))
+			if (!isToken(i, NameTable.CLOSE_PARENTHESIS))
 				throw new SyntacticException("Missing ')'", get(i));
 			
-//			this.listener.onExpressionEnd(i, get(i));
-			
 			return i + 1;
 		}
-		else if (isToken(i, "not"))
+		else if (isToken(i, NameTable.NOT))
 		{
-			return matchFactor(i + 1);
+			int start = mark();
+			int inner = matchFactor(i + 1);
+			
+			node(NodeKind.Unary, i, start, inner);
+			
+			return inner;
 		}
 		else
 		{
@@ -492,7 +698,8 @@ public class SyntacticAnalyser
 					&& !isType(i, TokenType.Boolean))
 				throw new SyntacticException("Didn't match any factor possibility", get(i));
 			
-			this.listener.onValue(i, get(i));
+			if (listens(SyntacticListener.VALUE)) this.listener.onValue(i, get(i));
+			leaf(NodeKind.Value, i);
 			
 			return i + 1;
 		}
@@ -500,15 +707,14 @@ public class SyntacticAnalyser
 	
 	private int matchExpressionList(int i)
 	{
-//		Log.d(1, "Parameter expression BEGIN (" + (i - 1) + ")");
-//		this.listener.onExpressionBegin(i - 1, get(i - 1));
-		
-		i = matchExpression(i);
-		
-//		Log.d(1, "Parameter expression END (" + i + ")");
-//		this.listener.onExpressionEnd(i, get(i));
-		this.listener.onProcedureArgument(i, get(i));
-		
-		return isToken(i, ",") ? matchExpressionList(i + 1) : i;
+		while (true)
+		{
+			i = matchExpression(i);
+			if (listens(SyntacticListener.ARGUMENT)) this.listener.onProcedureArgument(i, get(i));
+			
+			if (!isToken(i, NameTable.COMMA)) return i;
+			
+			i++;
+		}
 	}
 }
@@ -4,6 +4,36 @@ import lexical.Symbol;
 
 public interface SyntacticListener
 {
+	// The bits of the events, by the order of the methods, in the mask of
+	// the ones a listener is interested in
+	public static final int NONE = 0;
+	public static final int MATCH_INDEX = 1 << 0;
+	public static final int SCOPE_BEGIN = 1 << 1;
+	public static final int SCOPE_END = 1 << 2;
+	public static final int VARIABLE_DECLARATION = 1 << 3;
+	public static final int TYPE_DEFINITION = 1 << 4;
+	public static final int VARIABLE = 1 << 5;
+	public static final int VALUE = 1 << 6;
+	public static final int OPERATOR = 1 << 7;
+	public static final int PROCEDURE_DECLARATION = 1 << 8;
+	public static final int PARAMETERS_BEGIN = 1 << 9;
+	public static final int PARAMETERS_END = 1 << 10;
+	public static final int PROCEDURE = 1 << 11;
+	public static final int ARGUMENTS_BEGIN = 1 << 12;
+	public static final int ARGUMENTS_END = 1 << 13;
+	public static final int ARGUMENT = 1 << 14;
+	public static final int CONTROL_CONDITION = 1 << 15;
+	public static final int ALL = (1 << 16) - 1;
+	
+	/**
+	 * Returns the mask of the events the listener is interested in. The
+	 * analyser reads it once, and doesn't call the methods of the others,
+	 * nor creates their symbols.
+	 */
+	public default int getEvents() {
+		return ALL;
+	}
+	
 	public void matchIndex(int i);
 	
 	// Scope
@@ -14,12 +44,11 @@ public interface SyntacticListener
 	public void onVariableDeclaration(int i, Symbol symbol);
 	public void onTypeDefinition(int i, Symbol symbol);
 	
-	// Expressions
+	// Expressions, in postfix order: an operator, including the assignment,
+	// follows its operands
 	public void onVariable(int i, Symbol symbol);
 	public void onValue(int i, Symbol symbol);
 	public void onOperator(int i, Symbol symbol);
-	public void onExpressionBegin(int i, Symbol symbol);
-	public void onExpressionEnd(int i, Symbol symbol);
 	
 	// Procedures
 	public void onProcedureDeclaration(int i, Symbol symbol);
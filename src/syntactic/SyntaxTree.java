@@ -0,0 +1,335 @@
+package syntactic;
+
+import java.util.Arrays;
+
+import lexical.Symbol;
+import lexical.TokenBuffer;
+
+/**
+ * Stores the abstract syntax tree of a code in parallel arrays, as in an
+ * arena, instead of an object for each node.
+ * Each node takes the ordinal of its kind, the index of its token and the
+ * one after its last token, its first child and its next sibling, or -1 if
+ * there's none. The nodes are
+ * added after their children, as the subtrees that have no parent yet are
+ * kept in a stack until their parent is added, so the root is the last one.
+ * The tree is walked with a {@link Cursor}.
+ */
+public class SyntaxTree
+{
+	private static final NodeKind[] KINDS = NodeKind.values();
+	
+	private final TokenBuffer symbols;
+	
+	private int[] kinds = new int[64];
+	private int[] tokens = new int[64];
+	private int[] ends = new int[64];
+	private int[] children = new int[64];
+	private int[] siblings = new int[64];
+	private int size = 0;
+	
+	// The subtrees that have no parent yet
+	private int[] roots = new int[16];
+	private int pending = 0;
+	
+	/**
+	 * The constructor.
+	 * @param symbols the tokens the nodes refer to.
+	 */
+	public SyntaxTree(TokenBuffer symbols) {
+		this.symbols = symbols;
+	}
+	
+	/**
+	 * Adds a node as the parent of the last subtrees added.
+	 * @param kind the kind.
+	 * @param token the index of the token.
+	 * @param start the number of subtrees that have no parent yet which
+	 * 		are not children of the node, as returned by {@link #mark()}.
+	 * @param end the index after the last token of the node.
+	 */
+	void add(NodeKind kind, int token, int start, int end)
+	{
+		if (this.size == this.kinds.length) grow(this.size + 1);
+		
+		int node = this.size++;
+		this.kinds[node] = kind.ordinal();
+		this.tokens[node] = token;
+		this.ends[node] = end;
+		this.children[node] = start < this.pending ? this.roots[start] : -1;
+		this.siblings[node] = -1;
+		
+		for (int i = start; i < this.pending; i++)
+			this.siblings[this.roots[i]] = i + 1 < this.pending ? this.roots[i + 1] : -1;
+		
+		this.pending = start;
+		
+		if (this.pending == this.roots.length)
+			this.roots = Arrays.copyOf(this.roots, this.pending * 2);
+		
+		this.roots[this.pending++] = node;
+	}
+	
+	/**
+	 * Adds the nodes of another tree after the last ones added, keeping its
+	 * subtrees that have no parent yet as ones of this tree, in order.
+	 * Both trees must refer to the same tokens.
+	 */
+	void append(SyntaxTree tree)
+	{
+		int offset = this.size;
+		
+		if (this.size + tree.size > this.kinds.length) grow(this.size + tree.size);
+		
+		for (int node = 0; node < tree.size; node++)
+		{
+			this.kinds[offset + node] = tree.kinds[node];
+			this.tokens[offset + node] = tree.tokens[node];
+			this.ends[offset + node] = tree.ends[node];
+			this.children[offset + node] = tree.children[node] < 0 ? -1 : tree.children[node] + offset;
+			this.siblings[offset + node] = tree.siblings[node] < 0 ? -1 : tree.siblings[node] + offset;
+		}
+		
+		this.size += tree.size;
+		
+		if (this.pending + tree.pending > this.roots.length)
+			this.roots = Arrays.copyOf(this.roots, Math.max(this.roots.length * 2, this.pending + tree.pending));
+		
+		for (int root = 0; root < tree.pending; root++)
+			this.roots[this.pending++] = tree.roots[root] + offset;
+	}
+	
+	/**
+	 * Replaces the subtree of a node by another tree, which refers to the
+	 * tokens that replaced the ones of the subtree, so the tokens after them
+	 * are moved.
+	 * @param node the root of the subtree.
+	 * @param tree the tree, with a single root.
+	 * @param delta the number of tokens added, or removed if negative.
+	 */
+	void replace(int node, SyntaxTree tree, int delta)
+	{
+		// The first node of the subtree, as the children are added before
+		// their parents
+		int first = node;
+		while (this.children[first] >= 0) first = this.children[first];
+		
+		int shift = tree.size - (node + 1 - first);
+		int root = first + tree.size - 1;
+		int end = this.ends[node];
+		int sibling = this.siblings[node];
+		
+		if (this.size + shift > this.kinds.length) grow(this.size + shift);
+		
+		int after = this.size - node - 1;
+		System.arraycopy(this.kinds, node + 1, this.kinds, root + 1, after);
+		System.arraycopy(this.tokens, node + 1, this.tokens, root + 1, after);
+		System.arraycopy(this.ends, node + 1, this.ends, root + 1, after);
+		System.arraycopy(this.children, node + 1, this.children, root + 1, after);
+		System.arraycopy(this.siblings, node + 1, this.siblings, root + 1, after);
+		this.size += shift;
+		
+		for (int i = 0; i < tree.size; i++)
+		{
+			this.kinds[first + i] = tree.kinds[i];
+			this.tokens[first + i] = tree.tokens[i];
+			this.ends[first + i] = tree.ends[i];
+			this.children[first + i] = tree.children[i] < 0 ? -1 : tree.children[i] + first;
+			this.siblings[first + i] = tree.siblings[i] < 0 ? -1 : tree.siblings[i] + first;
+		}
+		
+		this.siblings[root] = sibling > node ? sibling + shift : sibling;
+		
+		// Only the previous sibling of the node refers to it from before it
+		for (int i = 0; i < first; i++)
+			if (this.siblings[i] >= node) this.siblings[i] += shift;
+		
+		for (int i = root + 1; i < this.size; i++)
+		{
+			if (this.children[i] >= node) this.children[i] += shift;
+			if (this.siblings[i] >= node) this.siblings[i] += shift;
+			if (this.tokens[i] >= end) this.tokens[i] += delta;
+			if (this.ends[i] >= end) this.ends[i] += delta;
+		}
+		
+		for (int i = 0; i < this.pending; i++)
+			if (this.roots[i] >= node) this.roots[i] += shift;
+	}
+	
+	private void grow(int minimum)
+	{
+		int capacity = Math.max(this.kinds.length * 2, minimum);
+		this.kinds = Arrays.copyOf(this.kinds, capacity);
+		this.tokens = Arrays.copyOf(this.tokens, capacity);
+		this.ends = Arrays.copyOf(this.ends, capacity);
+		this.children = Arrays.copyOf(this.children, capacity);
+		this.siblings = Arrays.copyOf(this.siblings, capacity);
+	}
+	
+	/**
+	 * Returns the number of subtrees that have no parent yet, which is
+	 * used to add a parent to the ones added after it, or to remove them.
+	 */
+	int mark() {
+		return this.pending;
+	}
+	
+	/**
+	 * Removes the nodes added after a mark.
+	 * @param mark the mark, as returned by {@link #mark()}.
+	 */
+	void reset(int mark)
+	{
+		// The nodes before a subtree were added before it
+		this.size = mark > 0 ? this.roots[mark - 1] + 1 : 0;
+		this.pending = mark;
+	}
+	
+	/**
+	 * Returns the number of nodes.
+	 */
+	public int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Returns the root, the last node added.
+	 */
+	public int getRoot() {
+		return this.size - 1;
+	}
+	
+	private int check(int node)
+	{
+		if (node < 0 || node >= this.size)
+			throw new IndexOutOfBoundsException("Node " + node + ", size " + this.size);
+		
+		return node;
+	}
+	
+	public NodeKind getKind(int node) {
+		return KINDS[this.kinds[check(node)]];
+	}
+	
+	/**
+	 * Returns the index of the token of a node in the token list.
+	 */
+	public int getToken(int node) {
+		return this.tokens[check(node)];
+	}
+	
+	/**
+	 * Returns the index after the last token of a node, which is the one
+	 * of its token if it's empty.
+	 */
+	public int getEnd(int node) {
+		return this.ends[check(node)];
+	}
+	
+	public Symbol getSymbol(int node) {
+		return this.symbols.get(getToken(node));
+	}
+	
+	/**
+	 * Returns the first child of a node, or -1 if it has none.
+	 */
+	public int getFirstChild(int node) {
+		return this.children[check(node)];
+	}
+	
+	/**
+	 * Returns the next sibling of a node, or -1 if it's the last one.
+	 */
+	public int getNextSibling(int node) {
+		return this.siblings[check(node)];
+	}
+	
+	public TokenBuffer getSymbols() {
+		return this.symbols;
+	}
+	
+	/**
+	 * Returns a cursor at the root.
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+	
+	/**
+	 * Walks the tree from the root, keeping the path to the current node.
+	 */
+	public class Cursor
+	{
+		private int[] path = new int[16];
+		private int depth = 0;
+		
+		private Cursor() {
+			this.path[0] = getRoot();
+		}
+		
+		public int getNode() {
+			return this.path[this.depth];
+		}
+		
+		public int getDepth() {
+			return this.depth;
+		}
+		
+		public NodeKind getKind() {
+			return SyntaxTree.this.getKind(getNode());
+		}
+		
+		public int getToken() {
+			return SyntaxTree.this.getToken(getNode());
+		}
+		
+		public int getEnd() {
+			return SyntaxTree.this.getEnd(getNode());
+		}
+		
+		public Symbol getSymbol() {
+			return SyntaxTree.this.getSymbol(getNode());
+		}
+		
+		/**
+		 * Moves to the first child of the node.
+		 * @return false if it has none, and the cursor is not moved.
+		 */
+		public boolean firstChild()
+		{
+			int child = getFirstChild(getNode());
+			if (child < 0) return false;
+			
+			if (++this.depth == this.path.length)
+				this.path = Arrays.copyOf(this.path, this.depth * 2);
+			
+			this.path[this.depth] = child;
+			return true;
+		}
+		
+		/**
+		 * Moves to the next sibling of the node.
+		 * @return false if it's the last one, and the cursor is not moved.
+		 */
+		public boolean nextSibling()
+		{
+			int sibling = getNextSibling(getNode());
+			if (sibling < 0 || this.depth == 0) return false;
+			
+			this.path[this.depth] = sibling;
+			return true;
+		}
+		
+		/**
+		 * Moves to the parent of the node.
+		 * @return false if it's the root, and the cursor is not moved.
+		 */
+		public boolean parent()
+		{
+			if (this.depth == 0) return false;
+			
+			this.depth--;
+			return true;
+		}
+	}
+}
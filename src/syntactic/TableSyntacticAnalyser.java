@@ -0,0 +1,364 @@
+package syntactic;
+
+import java.util.Arrays;
+import java.util.List;
+
+import lexical.Symbol;
+import lexical.TokenBuffer;
+
+/**
+ * Analyses a code syntactically by the LL(1) table of {@link #GRAMMAR},
+ * calling the same methods of the listener as {@link SyntacticAnalyser}
+ * with the same events left after {@link SyntacticListener#matchIndex(int)}.
+ * The table resolves its two conflicts as the other analyser does: an
+ * 'else' belongs to the innermost 'if', and a 'while' after a 'do' begins
+ * a while-do command. As the other analyser, it goes back to the other
+ * production of a conflict if the one chosen doesn't match, as in
+ * {@code do while b}, so it matches the same codes, but an error may be
+ * reported at another token.
+ * The tokens are read in chunks, and it doesn't build a syntax tree.
+ */
+public class TableSyntacticAnalyser
+{
+	/**
+	 * The grammar of the language, in the format of {@link Grammar}.
+	 */
+	public static final String GRAMMAR = ""
+			+ "%expect 2\n"
+			+ "\n"
+			+ "Program = 'program'!\"Missing key word 'program'\" Identifier!\"Missing program identifier\"\n"
+			+ "		@onVariableDeclaration(-1) @onTypeDefinition(-1, -2) @onScopeBegin(-2)\n"
+			+ "		';' Variables Procedures Compound @onScopeEnd(-1) '.'!\"Missing '.' at end of file\" ;\n"
+			+ "\n"
+			+ "# Declarations\n"
+			+ "Variables = [ 'var' Declaration { Declaration } ] ;\n"
+			+ "Declaration = Identifiers!\"Missing identifier\" ':' Type!\"Invalid or missing type\" @onTypeDefinition(-1) ';' ;\n"
+			+ "Identifiers = Identifier @onVariableDeclaration(-1) { ',' Identifier @onVariableDeclaration(-1) } ;\n"
+			+ "Type = 'integer' | 'real' | 'boolean' ;\n"
+			+ "Procedures = { Procedure ';' } ;\n"
+			+ "Procedure = 'procedure' Identifier!\"Missing procedure identifier\"\n"
+			+ "		@onProcedureDeclaration(-1) @onScopeBegin(-1) @onProcedureParametersDeclarationBegin(0)\n"
+			+ "		[ '(' Parameters ')' ] @onProcedureParametersDeclarationEnd(0)\n"
+			+ "		';' Variables Procedures Compound @onScopeEnd(-1) ;\n"
+			+ "Parameters = [ Identifiers ':' Type!\"Invalid or missing type\" @onTypeDefinition(-1) [ ';' Parameters ] ] ;\n"
+			+ "\n"
+			+ "# Commands\n"
+			+ "# A list of commands ends with the first empty one\n"
+			+ "Compound = 'begin'!\"Missing 'begin' command\" Commands 'end'!\"Missing 'end' command\" ;\n"
+			+ "Commands = [ Statement [ ';' Commands ] ] ;\n"
+			+ "Command = [ Statement ] ;\n"
+			+ "Statement = Identifier ( @onVariable(-1) ':=' Expression @onOperator(^) | Call ) | Compound | If | While | DoWhile ;\n"
+			+ "Call = @onProcedure(-1) @onProcedureArgumentsBegin(0)\n"
+			+ "		[ '(' [ Arguments ] ')'!\"Missing delimitier ')' from procedure call\" ] @onProcedureArgumentsEnd(0) ;\n"
+			+ "Arguments = Expression @onProcedureArgument(0) { ',' Expression @onProcedureArgument(0) } ;\n"
+			+ "If = 'if' Expression @onControlCondition(-1) 'then'!\"Missing 'then' statement\" Command [ 'else' Command ] ;\n"
+			+ "While = 'while' Expression @onControlCondition(-1) 'do'!\"Missing 'do' statement\" Command ;\n"
+			+ "DoWhile = 'do' Command 'while'!\"Missing 'while' statement\" Expression @onControlCondition(-1) ;\n"
+			+ "\n"
+			+ "# Expressions, with a single relational or logical operator\n"
+			+ "Expression = Simple [ Relational Simple @onOperator(^) ] ;\n"
+			+ "Simple = [ '+' | '-' ] Term { Additive Term @onOperator(^) } ;\n"
+			+ "Term = Factor { Multiplicative Factor @onOperator(^) } ;\n"
+			+ "Factor = Identifier @onVariable(-1) | Integer @onValue(-1) | Real @onValue(-1) | Boolean @onValue(-1)\n"
+			+ "		| '(' Expression ')' | 'not' Factor ;\n"
+			+ "Relational = '=' | '<>' | '<' | '<=' | '>' | '>=' | 'and' | 'or' ;\n"
+			+ "Additive = '+' | '-' ;\n"
+			+ "Multiplicative = '*' | '/' ;\n";
+	
+	// The tokens are read in chunks of a power of two
+	private static final int MASK = (1 << 10) - 1;
+	
+	private static final Grammar LANGUAGE = new Grammar(GRAMMAR);
+	private static final Automaton STATES = new Automaton(LANGUAGE, LANGUAGE.productions);
+	// The states without any event, for the analyses with no listener
+	private static final Automaton SILENT = new Automaton(LANGUAGE, LANGUAGE.productions(SyntacticListener.NONE));
+	
+	// The terminal of each token type, and of the end of file after them,
+	// which is the first one
+	private static final int END_TYPE = LANGUAGE.terminalsByType.length;
+	private static final int[] TERMINALS_BY_TYPE = Arrays.copyOf(LANGUAGE.terminalsByType, END_TYPE + 1);
+	
+	private final TokenBuffer symbols;
+	private final SyntacticListener listener;
+	// The mask of the events the listener is interested in
+	private final int events;
+	private final Automaton automaton;
+	
+	// The states to return to, by the offsets of their rows, and the index
+	// of the token where the group of each one began
+	private int[] stack = new int[64];
+	private int[] starts = new int[64];
+	private int top;
+	
+	// The state being analysed, the index of the token where its group
+	// began, and the index of the current token
+	private int state;
+	private int start;
+	private int index;
+	
+	// The ids and the types of the chunk of tokens being analysed
+	private final int[] ids = new int[MASK + 1];
+	private final int[] types = new int[MASK + 1];
+	
+	// The index in the stack of the mark of each choice, the index of the
+	// token where it was made, and the state of its other production, or
+	// Automaton.POP if it's empty
+	private int[] choiceTops = new int[16];
+	private int[] choiceIndexes = new int[16];
+	private int[] choiceStates = new int[16];
+	private int choices = 0;
+	
+	public TableSyntacticAnalyser(List<Symbol> symbols, SyntacticListener listener)
+	{
+		this.symbols = TokenBuffer.of(symbols);
+		this.listener = listener == null ? new EmptySyntaticListener() : listener;
+		this.events = this.listener.getEvents();
+		
+		if (this.events == SyntacticListener.NONE) this.automaton = SILENT;
+		else if (this.events == SyntacticListener.ALL) this.automaton = STATES;
+		else this.automaton = new Automaton(LANGUAGE, LANGUAGE.productions(this.events));
+	}
+	
+	public TableSyntacticAnalyser(List<Symbol> symbols) {
+		this(symbols, new EmptySyntaticListener());
+	}
+	
+	/**
+	 * Returns the grammar, which table is built once.
+	 */
+	public static Grammar getGrammar() {
+		return LANGUAGE;
+	}
+	
+	public void analyse()
+	{
+		this.stack[0] = Automaton.ACCEPT;
+		this.top = 1;
+		this.state = Automaton.BEGIN * this.automaton.width;
+		this.start = 0;
+		this.index = 0;
+		
+		while (analyseChunk());
+	}
+	
+	/**
+	 * Analyses the tokens from the current index until the last one of its
+	 * chunk is matched, or the analysis goes back to the token of a choice.
+	 * @return if the analysis goes on from another token.
+	 */
+	private boolean analyseChunk()
+	{
+		Automaton automaton = this.automaton;
+		int[] actions = automaton.actions;
+		int cut = Automaton.CUT * automaton.width;
+		int[] terminalsById = LANGUAGE.terminalsById;
+		int[] terminalsByType = TERMINALS_BY_TYPE;
+		int[] ids = this.ids;
+		int[] types = this.types;
+		
+		int[] stack = this.stack;
+		int[] starts = this.starts;
+		int top = this.top;
+		int state = this.state;
+		int start = this.start;
+		int i = this.index;
+		
+		int limit = load(i);
+		int terminal = terminalsById.length > ids[i & MASK] ? terminalsById[ids[i & MASK]] : -1;
+		if (terminal < 0) terminal = terminalsByType[types[i & MASK]];
+		
+		while (true)
+		{
+			int action = actions[state + terminal];
+			
+			if (action >= 0)
+			{
+				state = action;
+			}
+			else if (action == Automaton.POP)
+			{
+				state = stack[--top];
+				start = starts[top];
+				continue;
+			}
+			else if (action == Automaton.RETURN)
+			{
+				state = stack[--top];
+				start = starts[top];
+			}
+			else
+			{
+				int complex = Automaton.COMPLEX - action;
+				int[] events = automaton.events[complex];
+				int[] pushes = automaton.pushes[complex];
+				int next = automaton.nexts[complex];
+				
+				for (int k = 0; k < events.length; k++)
+				{
+					int item = events[k] >> 1;
+					fire(item, (LANGUAGE.fromStart[item] && (events[k] & 1) != 0 ? start : i) + LANGUAGE.offsets[item]);
+				}
+				
+				if (top + pushes.length > stack.length)
+				{
+					stack = this.stack = Arrays.copyOf(stack, top + pushes.length + stack.length);
+					starts = this.starts = Arrays.copyOf(starts, stack.length);
+				}
+				
+				for (int k = 0; k < pushes.length; k++, top++)
+				{
+					stack[top] = pushes[k] >> 1;
+					starts[top] = (pushes[k] & 1) != 0 ? start : i;
+					
+					if (stack[top] == cut) choose(top, i, automaton.resumes[complex][k]);
+				}
+				
+				if (next >= 0)
+				{
+					if ((next & 1) == 0) start = i;
+					state = next >> 1;
+				}
+				else if (next == Automaton.RETURN)
+				{
+					state = stack[--top];
+					start = starts[top];
+				}
+				else if (next == Automaton.STOP)
+				{
+					return false;
+				}
+				else if (next == Automaton.FAIL)
+				{
+					if (this.choices == 0) throw error(automaton.errors[complex], i);
+					
+					// Goes back to the other production of the last choice
+					int choice = --this.choices;
+					top = this.choiceTops[choice];
+					i = this.choiceIndexes[choice];
+					
+					if ((this.events & SyntacticListener.MATCH_INDEX) != 0) this.listener.matchIndex(i);
+					
+					if (this.choiceStates[choice] != Automaton.POP) {
+						state = this.choiceStates[choice];
+						start = i;
+					}
+					else {
+						state = stack[--top];
+						start = starts[top];
+					}
+					break;
+				}
+				else
+				{
+					if (next == Automaton.DROP) this.choices--;
+					
+					state = stack[--top];
+					start = starts[top];
+					continue;
+				}
+			}
+			
+			// The token is matched
+			if (++i == limit) break;
+			
+			terminal = terminalsById.length > ids[i & MASK] ? terminalsById[ids[i & MASK]] : -1;
+			if (terminal < 0) terminal = terminalsByType[types[i & MASK]];
+		}
+		
+		this.top = top;
+		this.state = state;
+		this.start = start;
+		this.index = i;
+		
+		return true;
+	}
+	
+	/**
+	 * Pushes a choice, which mark is at an index of the stack.
+	 */
+	private void choose(int top, int i, int state)
+	{
+		if (this.choices == this.choiceTops.length)
+		{
+			this.choiceTops = Arrays.copyOf(this.choiceTops, this.choices * 2);
+			this.choiceIndexes = Arrays.copyOf(this.choiceIndexes, this.choices * 2);
+			this.choiceStates = Arrays.copyOf(this.choiceStates, this.choices * 2);
+		}
+		
+		this.choiceTops[this.choices] = top;
+		this.choiceIndexes[this.choices] = i;
+		this.choiceStates[this.choices++] = state;
+	}
+	
+	/**
+	 * Copies the tokens of the chunk of an index, or marks the end of file
+	 * at it if it's after the last one.
+	 * @return the index after the last token copied, or after the end of
+	 * 		file.
+	 */
+	private int load(int i)
+	{
+		int from = i & ~MASK;
+		int count = from < this.symbols.size() ? this.symbols.copy(from, this.ids, this.types) : 0;
+		
+		if (from + count > i) return from + count;
+		
+		this.ids[i & MASK] = Integer.MAX_VALUE;
+		this.types[i & MASK] = END_TYPE;
+		
+		return i + 1;
+	}
+	
+	/**
+	 * Creates the exception of an item that doesn't match the token at an
+	 * index.
+	 */
+	private SyntacticException error(int item, int i)
+	{
+		int size = this.symbols.size();
+		
+		if (item < 0) return new SyntacticException("Remaining code after program end");
+		if (i < size) return new SyntacticException(LANGUAGE.messages[item], this.symbols.get(i));
+		if (size > 0) return new SyntacticException("Unexpected end of file", this.symbols.get(size - 1));
+		
+		return new SyntacticException("Unexpected end of file");
+	}
+	
+	/**
+	 * Calls the method of the listener of an event item.
+	 * @param i the index of the event.
+	 */
+	private void fire(int item, int i)
+	{
+		int event = LANGUAGE.values[item];
+		
+		if (event == 1) {
+			this.listener.onScopeBegin(i, this.symbols.getAt(i));
+			return;
+		}
+		else if (event == 2) {
+			this.listener.onScopeEnd(i, this.symbols.getAt(i));
+			return;
+		}
+		
+		Symbol symbol = this.symbols.get(i + LANGUAGE.symbolOffsets[item]);
+		
+		switch (event)
+		{
+			case 0: this.listener.matchIndex(i); break;
+			case 3: this.listener.onVariableDeclaration(i, symbol); break;
+			case 4: this.listener.onTypeDefinition(i, symbol); break;
+			case 5: this.listener.onVariable(i, symbol); break;
+			case 6: this.listener.onValue(i, symbol); break;
+			case 7: this.listener.onOperator(i, symbol); break;
+			case 8: this.listener.onProcedureDeclaration(i, symbol); break;
+			case 9: this.listener.onProcedureParametersDeclarationBegin(i, symbol); break;
+			case 10: this.listener.onProcedureParametersDeclarationEnd(i, symbol); break;
+			case 11: this.listener.onProcedure(i, symbol); break;
+			case 12: this.listener.onProcedureArgumentsBegin(i, symbol); break;
+			case 13: this.listener.onProcedureArgumentsEnd(i, symbol); break;
+			case 14: this.listener.onProcedureArgument(i, symbol); break;
+			case 15: this.listener.onControlCondition(i, symbol); break;
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package lexical;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class AsciiSequenceTest {
+	
+	private static final byte[] BYTES = { ' ', '}', '\n', '\r', 'a', ';', (byte) 0xC3, 0, 1, 0x7F };
+	
+	private static int indexOf(byte[] bytes, int offset, char c, int from, int to)
+	{
+		for (int i = from; i < to; i++)
+			if (bytes[offset + i] == c)
+				return i;
+		
+		return -1;
+	}
+	
+	private static int indexOfLineBreak(byte[] bytes, int offset, int from, int to)
+	{
+		for (int i = from; i < to; i++)
+		{
+			byte b = bytes[offset + i];
+			if (b == '\n' || b == '\r' || b < 0) return i;
+		}
+		
+		return -1;
+	}
+	
+	@Test
+	public void test()
+	{
+		AsciiSequence text = new AsciiSequence("program teste;".getBytes());
+		
+		assertEquals(14, text.length());
+		assertEquals('t', text.charAt(8));
+		assertEquals("teste", text.subSequence(8, 13).toString());
+		assertEquals(7, text.indexOf(' ', 0, 14));
+		assertEquals(-1, text.indexOf(' ', 8, 14));
+		assertEquals(-1, text.indexOfLineBreak(0, 14));
+	}
+	
+	@Test
+	public void testRandom()
+	{
+		Random random = new Random(9);
+		
+		for (int test = 0; test < 2000; test++)
+		{
+			byte[] bytes = new byte[random.nextInt(40)];
+			for (int i = 0; i < bytes.length; i++)
+				bytes[i] = random.nextInt(4) == 0 ? BYTES[random.nextInt(BYTES.length)] : (byte) ('a' + random.nextInt(26));
+			
+			int offset = random.nextInt(bytes.length + 1);
+			AsciiSequence text = new AsciiSequence(bytes, offset, bytes.length - offset);
+			int from = random.nextInt(text.length() + 1);
+			int to = from + random.nextInt(text.length() - from + 1);
+			
+			for (char c : new char[] { ' ', '}', '\n', 0, 1, 0x7F })
+				assertEquals(indexOf(bytes, offset, c, from, to), text.indexOf(c, from, to));
+			
+			assertEquals(indexOfLineBreak(bytes, offset, from, to), text.indexOfLineBreak(from, to));
+		}
+	}
+	
+}
@@ -0,0 +1,118 @@
+package lexical;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IncrementalLexicalAnalyserTest {
+	
+	private static final String[] PIECES = {
+		"valor", "Valor2", "begin", "end;", ":=", "12.5", "3i+4", "and", "(", ")", "+", "{", "}", "//", " ", "  ", "\t"
+	};
+	
+	private static String process(List<String> lines)
+	{
+		try { return LexicalAnalyser.process(lines).toString(); }
+		catch (LexicalException e) { return e.getMessage(); }
+	}
+	
+	private static String process(IncrementalLexicalAnalyser analyser, LineEdit... edits)
+	{
+		try { return analyser.process(edits).toString(); }
+		catch (LexicalException e) { return e.getMessage(); }
+	}
+	
+	private static String line(Random random, boolean invalid)
+	{
+		StringBuilder line = new StringBuilder();
+		int pieces = random.nextInt(6);
+		
+		for (int i = 0; i < pieces; i++)
+			line.append(PIECES[random.nextInt(PIECES.length)]).append(' ');
+		
+		if (invalid) line.append('#');
+		
+		return line.toString();
+	}
+	
+	@Test
+	public void test()
+	{
+		List<String> lines = new ArrayList<>(Arrays.asList(
+				"program teste; {programa",
+				"exemplo}",
+				"var",
+				"	valor1: integer;",
+				"begin",
+				"	valor1 := 10",
+				"end."));
+		
+		IncrementalLexicalAnalyser analyser = new IncrementalLexicalAnalyser(lines);
+		assertEquals(process(lines), process(analyser));
+		
+		// Opens a comment that closes lines after
+		lines.set(2, "var {");
+		lines.set(3, "	valor1: integer; }");
+		assertEquals(process(lines), process(analyser, new LineEdit(2, 2, "var {", "	valor1: integer; }")));
+		
+		// Removes and inserts lines
+		lines.remove(0);
+		lines.add(2, "	valor2: real;");
+		lines.add(2, "");
+		assertEquals(process(lines), process(analyser, new LineEdit(0, 1), new LineEdit(2, 0, "", "	valor2: real;")));
+		assertEquals(lines, analyser.getLines());
+		
+		// A comment not closed and an invalid symbol, then fixed
+		assertEquals(process(Arrays.asList("exemplo} {", "#")),
+				process(analyser, new LineEdit(0, lines.size(), "exemplo} {", "#")));
+		assertEquals(process(Arrays.asList("exemplo} ", "#")), process(analyser, new LineEdit(0, 1, "exemplo} ")));
+		assertEquals(process(Arrays.asList("exemplo} ", "a")), process(analyser, new LineEdit(1, 1, "a")));
+		
+		try { analyser.process(new LineEdit(1, 2)); fail(); }
+		catch (IndexOutOfBoundsException e) { }
+	}
+	
+	@Test
+	public void testRandom()
+	{
+		Random random = new Random(7);
+		
+		for (int test = 0; test < 200; test++)
+		{
+			List<String> lines = new ArrayList<>();
+			for (int i = random.nextInt(20); i > 0; i--)
+				lines.add(line(random, false));
+			
+			IncrementalLexicalAnalyser analyser = new IncrementalLexicalAnalyser(lines);
+			assertEquals(process(lines), process(analyser));
+			
+			for (int step = 0; step < 20; step++)
+			{
+				LineEdit[] edits = new LineEdit[1 + random.nextInt(3)];
+				
+				for (int e = 0; e < edits.length; e++)
+				{
+					int line = random.nextInt(lines.size() + 1);
+					int removed = random.nextInt(Math.min(3, lines.size() - line) + 1);
+					String[] inserted = new String[random.nextInt(3)];
+					
+					for (int i = 0; i < inserted.length; i++)
+						inserted[i] = line(random, random.nextInt(20) == 0);
+					
+					edits[e] = new LineEdit(line, removed, inserted);
+					lines.subList(line, line + removed).clear();
+					lines.addAll(line, Arrays.asList(inserted));
+				}
+				
+				assertEquals(Arrays.toString(edits), process(lines), process(analyser, edits));
+			}
+		}
+	}
+	
+}
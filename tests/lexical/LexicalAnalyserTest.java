@@ -3,6 +3,10 @@ package lexical;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import org.junit.Test;
@@ -156,4 +160,32 @@ public class LexicalAnalyserTest {
 		catch (LexicalException le) { assertTrue(true); }
 	}
 	
+	private static void assertFile(String code) throws IOException
+	{
+		Path path = Files.createTempFile("test", ".pas");
+		
+		try {
+			Files.write(path, code.getBytes(StandardCharsets.UTF_8));
+			assertEquals(LexicalAnalyser.process(Files.readAllLines(path, StandardCharsets.UTF_8)),
+					LexicalAnalyser.process(path));
+		}
+		finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void testFile() throws IOException
+	{
+		assertFile("");
+		assertFile("program teste;\r\nvar\r\n\tvalor1: integer;\r\rbegin end.");
+		assertFile("program teste; {programa\n\u00e9 exemplo}\nvar\n\tvalor1: integer;\n");
+		
+		StringBuilder code = new StringBuilder();
+		for (int i = 0; i < 20000; i++) code.append("valor").append(i).append(" := 10;\r\n");
+		
+		assertFile(code.toString());
+		assertFile(code.append("{\u00e9}\r\nvalor := 1").toString());
+	}
+	
 }
@@ -0,0 +1,96 @@
+package lexical;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class ParallelLexicalAnalyserTest {
+	
+	private static final ForkJoinPool POOL = new ForkJoinPool(4);
+	
+	private static final String CODE =
+			"program teste; {programa\n" +
+			"exemplo}\n" +
+			"var\n" +
+			"	valor1: integer; // inline { not a comment\n" +
+			"	Valor2: real;\n" +
+			"{ a comment\n" +
+			"\n" +
+			"  spanning { lines\n" +
+			"} begin { a comment { with } valor1 := 10;\n" +
+			"	valor2 := valor1 + 12.5 and 3i+4\n" +
+			"end.\n";
+	
+	private static String process(String code)
+	{
+		try { return LexicalAnalyser.process(code).toString(); }
+		catch (LexicalException e) { return e.getMessage(); }
+	}
+	
+	private static String process(String code, int chunkSize)
+	{
+		try { return new ParallelLexicalAnalyser(POOL, chunkSize).process(code).toString(); }
+		catch (LexicalException e) { return e.getMessage(); }
+	}
+	
+	private static String process(List<String> lines, int chunkSize)
+	{
+		try { return new ParallelLexicalAnalyser(POOL, chunkSize).process(lines).toString(); }
+		catch (LexicalException e) { return e.getMessage(); }
+	}
+	
+	private static void assertSame(String code)
+	{
+		String expected = process(code);
+		List<String> lines = Arrays.asList(code.split("\n", -1));
+		
+		for (int size = 1; size <= code.length() + 1; size++)
+		{
+			assertEquals(expected, process(code, size));
+			assertEquals(expected, process(lines, size));
+		}
+	}
+	
+	@Test
+	public void test()
+	{
+		assertSame(CODE);
+		assertSame(CODE.trim());
+		assertSame("");
+		assertSame("\n\n");
+	}
+	
+	@Test
+	public void testIds()
+	{
+		TokenBuffer expected = LexicalAnalyser.process(CODE);
+		TokenBuffer symbols = new ParallelLexicalAnalyser(POOL, 8).process(CODE);
+		
+		assertEquals(expected.size(), symbols.size());
+		assertEquals(expected.getNames().size(), symbols.getNames().size());
+		
+		for (int i = 0; i < expected.size(); i++)
+		{
+			assertEquals(expected.getId(i), symbols.getId(i));
+			assertEquals(expected.getOffset(i), symbols.getOffset(i));
+			assertEquals(expected.getLength(i), symbols.getLength(i));
+		}
+	}
+	
+	@Test
+	public void testErrors()
+	{
+		assertTrue(process(CODE + "{ not closed").startsWith("Comment not closed"));
+		
+		assertSame(CODE + "{ not closed");
+		assertSame(CODE + "}");
+		assertSame(CODE.replace("begin", "beg#in"));
+		assertSame(CODE.replace("{ a comment\n", "\n"));
+	}
+	
+}
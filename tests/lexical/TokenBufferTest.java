@@ -0,0 +1,118 @@
+package lexical;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TokenBufferTest {
+	
+	@Test
+	public void test()
+	{
+		TokenBuffer buffer = LexicalAnalyser.process("program Teste;\n  valor1 := valor1 + 2.5;");
+		
+		assertEquals(9, buffer.size());
+		assertEquals(new Symbol("teste", TokenType.Identifier, 1), buffer.get(1));
+		assertEquals(TokenType.AssignmentCommand, buffer.getType(4));
+		assertEquals(2, buffer.getAt(4));
+		
+		// Offsets in the line and lengths in the source
+		assertEquals(8, buffer.getOffset(1));
+		assertEquals(5, buffer.getLength(1));
+		assertEquals(2, buffer.getOffset(3));
+		assertEquals(6, buffer.getLength(3));
+		assertEquals(21, buffer.getOffset(7));
+		assertEquals(3, buffer.getLength(7));
+		
+		// Equal spellings share the same id
+		assertEquals(buffer.getId(3), buffer.getId(5));
+		assertEquals("valor1", buffer.getNames().name(buffer.getId(5)));
+		assertEquals(buffer.getId(2), buffer.getId(8));
+		assertTrue(buffer.getId(1) != buffer.getId(3));
+		
+		try { buffer.getType(9); fail(); }
+		catch (IndexOutOfBoundsException e) { }
+	}
+	
+	@Test
+	public void testOf()
+	{
+		List<Symbol> symbols = new ArrayList<>();
+		symbols.add(new Symbol("program", TokenType.KeyWord, 1));
+		symbols.add(new Symbol("id", TokenType.Identifier, 2));
+		symbols.add(new Symbol("id", TokenType.Identifier, 3));
+		
+		TokenBuffer buffer = TokenBuffer.of(symbols);
+		
+		assertEquals(symbols, buffer);
+		assertEquals(buffer.getId(1), buffer.getId(2));
+		assertTrue(buffer == TokenBuffer.of(buffer));
+	}
+	
+	@Test
+	public void testNameTable()
+	{
+		NameTable names = new NameTable();
+		int fixed = names.size();
+		
+		for (int i = 0; i < 1000; i++)
+			assertEquals(fixed + i, names.intern("name" + i));
+		
+		for (int i = 0; i < 1000; i++)
+		{
+			assertEquals(fixed + i, names.intern("name" + i));
+			assertEquals(fixed + i, names.find("name" + i));
+			assertEquals("name" + i, names.name(fixed + i));
+		}
+		
+		assertEquals(fixed + 1000, names.size());
+		assertEquals(-1, names.find("other"));
+	}
+	
+	@Test
+	public void testFixedIds()
+	{
+		TokenBuffer buffer = LexicalAnalyser.process("program p; begin x := (a <= 1) and not b end.");
+		
+		assertEquals(NameTable.PROGRAM, buffer.getId(0));
+		assertEquals(NameTable.SEMICOLON, buffer.getId(2));
+		assertEquals(NameTable.BEGIN, buffer.getId(3));
+		assertEquals(NameTable.ASSIGNMENT, buffer.getId(5));
+		assertEquals(NameTable.OPEN_PARENTHESIS, buffer.getId(6));
+		assertTrue(NameTable.isRelationalOperator(buffer.getId(8)));
+		assertEquals(NameTable.CLOSE_PARENTHESIS, buffer.getId(10));
+		assertTrue(NameTable.isLogicalOperator(buffer.getId(11)));
+		assertEquals(NameTable.NOT, buffer.getId(12));
+		assertEquals(NameTable.END, buffer.getId(14));
+		assertEquals(NameTable.DOT, buffer.getId(15));
+		
+		assertEquals("or", new NameTable().name(NameTable.OR));
+		assertTrue(NameTable.isTypeName(new NameTable().find("boolean")));
+	}
+	
+	@Test
+	public void testCopy()
+	{
+		TokenBuffer buffer = LexicalAnalyser.process("program p; begin x := 1 end.");
+		int[] ids = new int[4];
+		int[] types = new int[4];
+		
+		assertEquals(4, buffer.copy(2, ids, types));
+		assertEquals(NameTable.SEMICOLON, ids[0]);
+		assertEquals(buffer.getId(4), ids[2]);
+		assertEquals(TokenType.Identifier.ordinal(), types[2]);
+		
+		// Fewer after the last one
+		assertEquals(2, buffer.copy(7, ids, types));
+		assertEquals(NameTable.DOT, ids[1]);
+		
+		try { buffer.copy(9, ids, types); fail(); }
+		catch (IndexOutOfBoundsException e) { }
+	}
+	
+}
@@ -0,0 +1,127 @@
+package lexical;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class TokenCacheTest {
+	
+	private static final String CODE = "program teste;\nvar\n\tvalor1: integer;\nbegin\n\tvalor1 := 10 {comentario}\nend.";
+	
+	private static void delete(Path directory) throws IOException
+	{
+		try (Stream<Path> paths = Files.walk(directory)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+	
+	private static void write(Path source, String code) throws IOException {
+		Files.write(source, code.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	public void test() throws IOException
+	{
+		Path directory = Files.createTempDirectory("tokens");
+		Path source = directory.resolve("test.pas");
+		TokenCache cache = new TokenCache(directory.resolve("cache"));
+		
+		try {
+			write(source, CODE);
+			
+			Path stored = cache.getPath(TokenCache.hash(source));
+			assertFalse(Files.exists(stored));
+			
+			TokenBuffer processed = cache.process(source);
+			assertTrue(Files.exists(stored));
+			assertEquals(LexicalAnalyser.process(source), processed);
+			
+			// Loaded from the cache, with the same ids and positions
+			TokenBuffer loaded = cache.process(source);
+			assertEquals(processed, loaded);
+			
+			for (int i = 0; i < processed.size(); i++)
+			{
+				assertEquals(processed.getId(i), loaded.getId(i));
+				assertEquals(processed.getOffset(i), loaded.getOffset(i));
+				assertEquals(processed.getLength(i), loaded.getLength(i));
+			}
+			
+			assertEquals("valor1", loaded.getNames().name(loaded.getId(9)));
+			
+			// An edited source is processed again
+			write(source, CODE.replace("10", "20"));
+			TokenBuffer edited = cache.process(source);
+			
+			assertEquals(new Symbol("20", TokenType.Integer, 5), edited.get(11));
+			assertTrue(Files.exists(cache.getPath(TokenCache.hash(source))));
+		}
+		finally {
+			delete(directory);
+		}
+	}
+	
+	@Test
+	public void testInvalid() throws IOException
+	{
+		Path directory = Files.createTempDirectory("tokens");
+		Path source = directory.resolve("test.pas");
+		TokenCache cache = new TokenCache(directory);
+		
+		try {
+			write(source, CODE);
+			
+			TokenBuffer processed = cache.process(source);
+			Path stored = cache.getPath(TokenCache.hash(source));
+			
+			// A corrupted file is replaced
+			byte[] bytes = Files.readAllBytes(stored);
+			Files.write(stored, Arrays.copyOf(bytes, bytes.length / 2));
+			assertEquals(processed, cache.process(source));
+			assertEquals(bytes.length, Files.size(stored));
+			
+			// A token with an invalid type
+			bytes[60] = 100;
+			Files.write(stored, bytes);
+			assertEquals(processed, cache.process(source));
+			
+			// Lengths that don't fit the file, or overflow its size
+			ByteBuffer header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+			int names = 48 + header.getInt(40) * 5 * 4;
+			
+			for (int[] corruption : new int[][] { { 40, Integer.MAX_VALUE }, { 40, 0x40000000 }, { 44, Integer.MAX_VALUE },
+					{ names, Integer.MAX_VALUE }, { names, -1 } })
+			{
+				byte[] corrupt = bytes.clone();
+				ByteBuffer.wrap(corrupt).order(ByteOrder.LITTLE_ENDIAN).putInt(corruption[0], corruption[1]);
+				Files.write(stored, corrupt);
+				assertEquals(processed, cache.process(source));
+			}
+			
+			// An invalid source is not stored
+			write(source, "program teste; {");
+			
+			try { cache.process(source); fail(); }
+			catch (LexicalException e) { }
+			
+			assertFalse(Files.exists(cache.getPath(TokenCache.hash(source))));
+		}
+		finally {
+			delete(directory);
+		}
+	}
+	
+}
@@ -0,0 +1,123 @@
+package lexical;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TokenCursorTest {
+
+	private static List<Symbol> symbols(int count)
+	{
+		List<Symbol> symbols = new ArrayList<>();
+		for (int i = 0; i < count; i++)
+			symbols.add(new Symbol("id" + (i % 10), TokenType.Identifier, i + 1));
+		return symbols;
+	}
+
+	private static void assertReleased(TokenCursor cursor, int i)
+	{
+		try {
+			cursor.get(i);
+			fail();
+		}
+		catch (IllegalStateException e) { }
+	}
+
+	@Test
+	public void test()
+	{
+		List<Symbol> symbols = symbols(20);
+		TokenCursor cursor = new TokenCursor(symbols.iterator(), new NameTable(), 8);
+
+		assertTrue(cursor.has(0));
+		assertEquals(symbols.get(3), cursor.get(3));
+		assertEquals(TokenType.Identifier, cursor.getType(3));
+		assertEquals(4, cursor.getAt(3));
+		assertEquals("id3", cursor.getNames().name(cursor.getId(3)));
+		assertEquals(cursor.getId(2), cursor.getId(12));
+
+		// The symbols behind the last one read are released
+		assertEquals(symbols.get(19), cursor.get(19));
+		assertEquals(symbols.get(15), cursor.get(15));
+		assertReleased(cursor, 3);
+		assertEquals(8, cursor.getCapacity());
+
+		assertFalse(cursor.has(20));
+		try { cursor.get(20); fail(); }
+		catch (IndexOutOfBoundsException e) { }
+	}
+
+	@Test
+	public void testHold()
+	{
+		List<Symbol> symbols = symbols(100);
+		TokenCursor cursor = new TokenCursor(symbols.iterator(), new NameTable(), 8);
+
+		// While open, every symbol from a hold on is kept
+		cursor.hold(10);
+		cursor.get(40);
+		assertEquals(symbols.get(6), cursor.get(6));
+		assertTrue(cursor.getCapacity() > 32);
+
+		// Once limited, the span is kept out of the buffer
+		cursor.rewind();
+		cursor.keep(12);
+		cursor.get(99);
+		assertEquals(symbols.get(12), cursor.get(12));
+		assertReleased(cursor, 13);
+
+		// Rewinding restores the span, and what follows it can't be read
+		cursor.rewind();
+		assertEquals(symbols.get(8), cursor.get(8));
+		assertEquals(symbols.get(12), cursor.get(12));
+		try { cursor.get(13); fail(); }
+		catch (IllegalStateException e) { }
+
+		cursor.release();
+		assertReleased(cursor, 0);
+	}
+
+	@Test
+	public void testNestedHolds()
+	{
+		List<Symbol> symbols = symbols(200);
+		TokenCursor cursor = new TokenCursor(symbols.iterator(), new NameTable(), 8);
+
+		for (int i = 0; i < 100; i += 10)
+		{
+			cursor.get(i + 1);
+			cursor.hold(i);
+			cursor.keep(i + 1);
+		}
+
+		cursor.get(199);
+
+		for (int i = 90; i >= 0; i -= 10)
+		{
+			assertEquals(symbols.get(i + 1), cursor.get(i + 1));
+			cursor.release();
+		}
+
+		// Only the symbols kept were stored
+		assertEquals(8, cursor.getCapacity());
+	}
+
+	@Test
+	public void testLongStream()
+	{
+		int count = 1000000;
+		TokenCursor cursor = new TokenCursor(symbols(count).iterator());
+
+		for (int i = 0; cursor.has(i); i++)
+			cursor.get(i);
+
+		assertEquals(64, cursor.getCapacity());
+	}
+
+}
@@ -0,0 +1,81 @@
+package lexical;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TokenStreamTest {
+	
+	private static final String CODE =
+			"program teste; {programa\n" +
+			"exemplo}\n" +
+			"var\n" +
+			"	valor1: integer; // inline\n" +
+			"	valor2: real;\n" +
+			"begin { a comment { with } valor1 := 10;\n" +
+			"	valor2 := valor1 + 12.5\n" +
+			"end.";
+	
+	private static List<Symbol> collect(TokenStream stream)
+	{
+		List<Symbol> symbols = new ArrayList<>();
+		while (stream.hasNext()) symbols.add(stream.next());
+		return symbols;
+	}
+	
+	@Test
+	public void test()
+	{
+		List<Symbol> expected = LexicalAnalyser.process(CODE);
+		
+		assertEquals(expected, collect(LexicalAnalyser.stream(new StringReader(CODE))));
+		
+		// Buffers smaller than the lines
+		for (int size = 1; size < 16; size++)
+			assertEquals(expected, collect(new TokenStream(new StringReader(CODE), size)));
+	}
+	
+	@Test
+	public void testChannel()
+	{
+		byte[] bytes = CODE.getBytes(StandardCharsets.UTF_8);
+		TokenStream stream = LexicalAnalyser.stream(Channels.newChannel(new ByteArrayInputStream(bytes)));
+		
+		assertEquals(LexicalAnalyser.process(CODE), collect(stream));
+	}
+	
+	@Test
+	public void testLineBreaks()
+	{
+		List<Symbol> expected = LexicalAnalyser.process("a\n\nb\nc\n");
+		
+		assertEquals(expected, collect(new TokenStream(new StringReader("a\r\n\r\nb\rc\r\n"), 2)));
+		assertEquals(expected, collect(new TokenStream(new StringReader("a\n\r\nb\r\nc"), 3)));
+	}
+	
+	@Test
+	public void testErrors()
+	{
+		TokenStream stream = new TokenStream(new StringReader("a {b\nc"), 2);
+		
+		assertEquals(new Symbol("a", TokenType.Identifier, 1), stream.next());
+		
+		try { stream.hasNext(); fail(); }
+		catch (LexicalException le) { }
+		
+		assertFalse(stream.hasNext());
+		
+		try { collect(new TokenStream(new StringReader("a\nb }\nc"))); fail(); }
+		catch (LexicalException le) { }
+	}
+	
+}
@@ -0,0 +1,120 @@
+package semantic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import lexical.TokenType;
+
+public class SymbolTableTest
+{
+	@Test
+	public void testShadowing()
+	{
+		SymbolTable symbols = new SymbolTable();
+		assertEquals(-1, symbols.find(1));
+		
+		symbols.declare(1);
+		symbols.setType(0, TokenType.Integer);
+		symbols.enter();
+		symbols.declare(2);
+		symbols.declare(1);
+		symbols.setType(2, TokenType.Real);
+		
+		// The innermost binding of a name is the visible one
+		assertEquals(2, symbols.find(1));
+		assertEquals(1, symbols.getDepth(symbols.find(1)));
+		assertEquals(TokenType.Real, symbols.getType(symbols.find(1)));
+		assertEquals(null, symbols.getType(symbols.find(2)));
+		
+		// Until its scope is closed
+		symbols.exit();
+		assertEquals(0, symbols.getDepth());
+		assertEquals(1, symbols.size());
+		assertEquals(0, symbols.find(1));
+		assertEquals(TokenType.Integer, symbols.getType(symbols.find(1)));
+		assertEquals(-1, symbols.find(2));
+	}
+	
+	@Test
+	public void testPop()
+	{
+		SymbolTable symbols = new SymbolTable();
+		
+		symbols.declare(5);
+		symbols.enter();
+		symbols.declare(5);
+		symbols.declare(1000);
+		
+		symbols.pop();
+		assertEquals(-1, symbols.find(1000));
+		assertEquals(1, symbols.find(5));
+		
+		symbols.pop();
+		assertEquals(0, symbols.find(5));
+		assertEquals(5, symbols.getName(0));
+	}
+	
+	@Test
+	public void testParameters()
+	{
+		SymbolTable symbols = new SymbolTable();
+		
+		symbols.declare(1);
+		symbols.setType(0, TokenType.Procedure);
+		symbols.enter();
+		symbols.declare(2);
+		symbols.declare(3);
+		symbols.setType(1, TokenType.Integer);
+		symbols.setType(2, TokenType.Real);
+		
+		// The parameters are the types of the last bindings when defined
+		symbols.setParameters(0, 2);
+		symbols.setType(2, TokenType.Boolean);
+		
+		assertEquals(2, symbols.getParameterCount(0));
+		assertEquals(TokenType.Integer, symbols.getParameter(0, 0));
+		assertEquals(TokenType.Real, symbols.getParameter(0, 1));
+		
+		symbols.exit();
+		assertEquals(TokenType.Procedure, symbols.getType(symbols.find(1)));
+		assertEquals(2, symbols.getParameterCount(0));
+	}
+	
+	@Test
+	public void testIsDeclared()
+	{
+		SymbolTable symbols = new SymbolTable();
+		assertFalse(symbols.isDeclared(1));
+		
+		symbols.declare(1);
+		symbols.enter();
+		assertFalse(symbols.isDeclared(1));
+		
+		// Declared again in the inner scope, until it's closed
+		symbols.declare(1);
+		assertTrue(symbols.isDeclared(1));
+		symbols.exit();
+		assertTrue(symbols.isDeclared(1));
+	}
+	
+	@Test
+	public void testGrowth()
+	{
+		SymbolTable symbols = new SymbolTable();
+		
+		for (int name = 0; name < 10000; name++) symbols.declare(name);
+		symbols.enter();
+		for (int name = 0; name < 10000; name += 2) symbols.declare(name);
+		
+		assertEquals(15000, symbols.size());
+		assertEquals(1, symbols.getDepth(symbols.find(9998)));
+		assertEquals(0, symbols.getDepth(symbols.find(9999)));
+		
+		symbols.exit();
+		assertEquals(10000, symbols.size());
+		assertEquals(0, symbols.getDepth(symbols.find(9998)));
+	}
+}
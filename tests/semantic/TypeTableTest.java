@@ -0,0 +1,51 @@
+package semantic;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import lexical.TokenType;
+
+public class TypeTableTest
+{
+	private static final TokenType ASSIGNMENT = TokenType.AssignmentCommand;
+	private static final TokenType ADDITIVE = TokenType.AdditiveOperator;
+	private static final TokenType RELATIONAL = TokenType.RelationalOperator;
+	private static final TokenType LOGICAL = TokenType.LogicalOperator;
+	
+	private static TokenType result(TokenType operator, TokenType base, TokenType current)
+	{
+		byte result = TypeTable.getResult(operator, base, current);
+		return result < 0 ? null : TokenType.values()[result];
+	}
+	
+	@Test
+	public void testWidening()
+	{
+		assertEquals(TokenType.Integer, result(ADDITIVE, TokenType.Integer, TokenType.Integer));
+		assertEquals(TokenType.Real, result(ADDITIVE, TokenType.Integer, TokenType.Real));
+		assertEquals(TokenType.Real, result(TokenType.MultiplicativeOperator, TokenType.Real, TokenType.Integer));
+		assertEquals(TokenType.Complex, result(ADDITIVE, TokenType.Complex, TokenType.Real));
+		assertEquals(TokenType.Boolean, result(RELATIONAL, TokenType.Integer, TokenType.Complex));
+		
+		// A value is only assigned to a variable of its type or a wider one
+		assertEquals(TypeTable.NONE, TypeTable.getResult(ASSIGNMENT, TokenType.Real, TokenType.Integer));
+		assertEquals(TypeTable.NONE, TypeTable.getResult(ASSIGNMENT, TokenType.Complex, TokenType.Real));
+		assertEquals(TypeTable.NONE, TypeTable.getResult(ASSIGNMENT, TokenType.Boolean, TokenType.Boolean));
+		assertEquals(TypeTable.INCOMPATIBLE_ASSIGNMENT, TypeTable.getResult(ASSIGNMENT, TokenType.Real, TokenType.Complex));
+		assertEquals(TypeTable.INCOMPATIBLE_ASSIGNMENT, TypeTable.getResult(ASSIGNMENT, TokenType.Integer, TokenType.Real));
+	}
+	
+	@Test
+	public void testBoolean()
+	{
+		assertEquals(TokenType.Boolean, result(LOGICAL, TokenType.Boolean, TokenType.Boolean));
+		assertEquals(TypeTable.INCOMPATIBLE_LOGICAL, TypeTable.getResult(LOGICAL, TokenType.Boolean, TokenType.Integer));
+		assertEquals(TypeTable.INCOMPATIBLE_OPERATION, TypeTable.getResult(RELATIONAL, TokenType.Boolean, TokenType.Boolean));
+		assertEquals(TypeTable.INCOMPATIBLE_OPERATION, TypeTable.getResult(ADDITIVE, TokenType.Integer, TokenType.Boolean));
+		assertEquals(TypeTable.INCOMPATIBLE_ASSIGNMENT, TypeTable.getResult(ASSIGNMENT, TokenType.Real, TokenType.Boolean));
+		
+		assertEquals("Incompatible types for logical operation", TypeTable.getError(TypeTable.INCOMPATIBLE_LOGICAL));
+		assertEquals("Incompatible types in the same operation", TypeTable.getError(TypeTable.INCOMPATIBLE_OPERATION));
+	}
+}
@@ -0,0 +1,104 @@
+package syntactic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import lexical.LexicalAnalyser;
+import lexical.Symbol;
+import lexical.TokenBuffer;
+import lexical.TokenType;
+import semantic.SemanticAnalyser;
+import semantic.SemanticException;
+
+public class EventLogTest
+{
+	private static final String CODE = "program id; var x, y: integer;\n"
+			+ "procedure p(a: integer); begin if a > 1 then x := a else y := 2 end;\n"
+			+ "begin do while x > 1 do begin x := x - 1; p(x) end while y < 10; p(x + 1) end.";
+	
+	@Test
+	public void testRollback()
+	{
+		Symbol s = new Symbol("s", TokenType.Complex, 0);
+		EventLog log = new EventLog();
+		
+		log.onScopeBegin(0, 1);
+		log.onVariable(1, s);
+		log.onVariable(3, s);
+		log.onOperator(2, s);
+		log.onVariable(5, s);
+		log.onValue(6, s);
+		
+		// The last events from the index on are removed
+		log.matchIndex(5);
+		assertEquals("onScopeBegin 0 at 1\nonVariable 1 s\nonVariable 3 s\nonOperator 2 s\n", log.toString());
+		
+		// But not the ones before an event with a smaller index
+		log.matchIndex(3);
+		assertEquals(4, log.size());
+		
+		log.matchIndex(0);
+		assertEquals(0, log.size());
+		
+		// Unless every event is kept
+		log = new EventLog(null, false);
+		log.onVariable(1, s);
+		log.matchIndex(0);
+		assertEquals("onVariable 1 s\nmatchIndex 0\n", log.toString());
+	}
+	
+	@Test
+	public void testReplay()
+	{
+		TokenBuffer symbols = TokenBuffer.of(LexicalAnalyser.process(CODE));
+		EventLog every = new EventLog(symbols, false);
+		new SyntacticAnalyser(symbols, every).analyse();
+		
+		// The symbols created from the tokens are the same as the ones kept
+		EventLog kept = new EventLog(null, false);
+		new SyntacticAnalyser(symbols, kept).analyse();
+		assertEquals(kept.toString(), every.toString());
+		
+		EventLog replayed = new EventLog(null, false);
+		every.replay(replayed);
+		assertEquals(every.toString(), replayed.toString());
+		
+		// The committed events are the ones left by the rollbacks
+		EventLog committed = new EventLog(symbols);
+		new SyntacticAnalyser(symbols, committed).analyse();
+		
+		EventLog rolledBack = new EventLog();
+		every.replay(rolledBack);
+		assertEquals(committed.toString(), rolledBack.toString());
+		assertTrue(committed.size() < every.size());
+		assertFalse(committed.toString().contains("matchIndex"));
+		
+		committed.replay(new SemanticAnalyser());
+		
+		committed.clear();
+		assertEquals(0, committed.size());
+		assertEquals("", committed.toString());
+	}
+	
+	@Test
+	public void testSemanticErrors()
+	{
+		// The replay of the committed events gets the same error as the
+		// analysis with the listener
+		TokenBuffer symbols = TokenBuffer.of(LexicalAnalyser.process(CODE.replace("p(x + 1)", "p(z)")));
+		EventLog committed = new EventLog(symbols);
+		new SyntacticAnalyser(symbols, committed).analyse();
+		
+		String expected = null;
+		
+		try { new SyntacticAnalyser(symbols, new SemanticAnalyser()).analyse(); fail(); }
+		catch (SemanticException e) { expected = e.getMessage(); }
+		
+		try { committed.replay(new SemanticAnalyser()); fail(); }
+		catch (SemanticException e) { assertEquals(expected, e.getMessage()); }
+	}
+}
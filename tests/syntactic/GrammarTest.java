@@ -0,0 +1,78 @@
+package syntactic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+public class GrammarTest
+{
+	private static final String EXPRESSION = "# Sums of identifiers\n"
+			+ "E = T { '+' T } ;\n"
+			+ "T = Identifier | '(' E ')' ;\n";
+	
+	private static final String IF = "S = 'if' Identifier S [ 'else' S ] | Identifier ;";
+	
+	private static void failSpecification(String specification, String message)
+	{
+		try {
+			new Grammar(specification);
+			fail("Should have throw an exception");
+		}
+		catch (GrammarException e) {
+			assertEquals(message, e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testSets()
+	{
+		Grammar grammar = new Grammar(EXPRESSION);
+		
+		assertEquals(new HashSet<>(Arrays.asList("'('", "Identifier")), grammar.getFirst("E"));
+		assertEquals(new HashSet<>(Arrays.asList("'('", "Identifier")), grammar.getFirst("T"));
+		assertEquals(new HashSet<>(Arrays.asList("end of file", "')'")), grammar.getFollow("E"));
+		assertEquals(new HashSet<>(Arrays.asList("end of file", "'+'", "')'")), grammar.getFollow("T"));
+		assertFalse(grammar.isNullable("E"));
+		assertTrue(grammar.getConflicts().isEmpty());
+		
+		assertTrue(new Grammar("S = [ Identifier ] ;").isNullable("S"));
+		
+		try {
+			grammar.getFirst("F");
+			fail();
+		}
+		catch (IllegalArgumentException e) {}
+	}
+	
+	@Test
+	public void testConflicts()
+	{
+		// The dangling else is reported unless it's expected
+		failSpecification(IF, "Expected 0 conflicts, found 1:\n[ 'else' S ] in S on 'else': 'else' S, and empty");
+		
+		Grammar grammar = new Grammar("%expect 1\n" + IF);
+		assertEquals(1, grammar.getConflicts().size());
+		
+		// The language has the dangling else and the 'while' after a 'do'
+		assertEquals(2, TableSyntacticAnalyser.getGrammar().getConflicts().size());
+	}
+	
+	@Test
+	public void testSpecificationErrors()
+	{
+		failSpecification("", "No rules");
+		failSpecification("= Identifier ;", "Expected a rule name, found =");
+		failSpecification("S = 'foo' ;", "Unknown token 'foo'");
+		failSpecification("S = Foo ;", "Unknown rule or token type Foo");
+		failSpecification("S = Identifier ; S = Integer ;", "Rule S defined twice");
+		failSpecification("S = 'if ;", "Unterminated 'if ;");
+		failSpecification("S = @onFoo(0) ;", "Unknown event onFoo");
+		failSpecification("S = ( Identifier ;", "Expected ), found ;");
+	}
+}
@@ -0,0 +1,129 @@
+package syntactic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import lexical.IncrementalLexicalAnalyser;
+import lexical.LineEdit;
+import lexical.TokenBuffer;
+
+public class IncrementalSyntacticAnalyserTest {
+	
+	private static String print(SyntaxTree tree)
+	{
+		StringBuilder builder = new StringBuilder();
+		
+		for (int node = 0; node < tree.size(); node++)
+		{
+			builder.append(tree.getKind(node)).append(' ').append(tree.getToken(node)).append(' ')
+					.append(tree.getEnd(node)).append(' ').append(tree.getFirstChild(node)).append(' ')
+					.append(tree.getNextSibling(node)).append('\n');
+		}
+		
+		return builder.toString();
+	}
+	
+	private static String analyse(TokenBuffer symbols)
+	{
+		try { return print(new SyntacticAnalyser(symbols).analyseTree()); }
+		catch (SyntacticException e) { return e.getMessage(); }
+	}
+	
+	private static String analyse(IncrementalSyntacticAnalyser analyser)
+	{
+		try { return print(analyser.analyse()); }
+		catch (SyntacticException e) { return e.getMessage(); }
+	}
+	
+	@Test
+	public void test()
+	{
+		List<String> lines = new ArrayList<>(Arrays.asList(
+				"program teste;",
+				"var valor: integer;",
+				"procedure p (n: integer);",
+				"begin",
+				"	n := n + 1",
+				"end;",
+				"procedure q;",
+				"begin",
+				"	if valor > 1 then begin valor := 1 end",
+				"end;",
+				"begin",
+				"	p(valor);",
+				"	q",
+				"end."));
+		
+		IncrementalLexicalAnalyser lexical = new IncrementalLexicalAnalyser(lines);
+		TokenBuffer symbols = lexical.process();
+		IncrementalSyntacticAnalyser analyser = new IncrementalSyntacticAnalyser(symbols);
+		
+		assertEquals(analyse(symbols), analyse(analyser));
+		assertEquals(symbols.size(), analyser.getAnalysed());
+		
+		// Only the body of the procedure is analysed again
+		lexical.process(new LineEdit(4, 1, "	n := n * 2 + 1"));
+		assertEquals(analyse(symbols), analyse(analyser));
+		assertEquals(9, analyser.getAnalysed());
+		
+		// And only the compound command in the other one
+		lexical.process(new LineEdit(8, 1, "	if valor > 1 then begin valor := 1; p(2) end"));
+		assertEquals(analyse(symbols), analyse(analyser));
+		assertEquals(10, analyser.getAnalysed());
+		
+		lexical.process(new LineEdit(2, 1, "procedure r (n: integer);"));
+		assertEquals(analyse(symbols), analyse(analyser));
+		assertTrue(analyser.getAnalysed() < 20);
+		
+		assertEquals(analyse(symbols), analyse(analyser));
+		assertEquals(0, analyser.getAnalysed());
+		
+		// An error, which is the same of analysing everything, and its fix
+		lexical.process(new LineEdit(4, 1, "	n := n *"));
+		assertEquals(analyse(symbols), analyse(analyser));
+		assertEquals(symbols.size(), analyser.getAnalysed());
+		
+		lexical.process(new LineEdit(4, 1, "	n := n"));
+		assertEquals(analyse(symbols), analyse(analyser));
+		
+		// A part that ends somewhere else is analysed with the rest
+		lexical.process(new LineEdit(9, 1, "end; procedure s; begin end;"));
+		assertEquals(analyse(symbols), analyse(analyser));
+		assertEquals(symbols.size(), analyser.getAnalysed());
+		
+		lexical.process(new LineEdit(11, 1, "	begin p(valor) end;"));
+		assertEquals(analyse(symbols), analyse(analyser));
+		assertTrue(analyser.getAnalysed() < symbols.size());
+	}
+	
+	@Test
+	public void testLongCode()
+	{
+		List<String> lines = new ArrayList<>();
+		lines.add("program teste; var valor: integer;");
+		
+		for (int i = 0; i < 1000; i++)
+			lines.add("procedure p" + i + "; begin while valor > " + i + " do valor := valor - 1 end;");
+		
+		lines.add("begin end.");
+		
+		IncrementalLexicalAnalyser lexical = new IncrementalLexicalAnalyser(lines);
+		TokenBuffer symbols = lexical.process();
+		IncrementalSyntacticAnalyser analyser = new IncrementalSyntacticAnalyser(symbols);
+		analyser.analyse();
+		
+		for (int i = 1; i <= 1000; i += 37)
+		{
+			lexical.process(new LineEdit(i, 1, lines.get(i).replace("- 1", "- (2 * valor)")));
+			assertEquals(analyse(symbols), analyse(analyser));
+			assertTrue(analyser.getAnalysed() < 30);
+		}
+	}
+	
+}
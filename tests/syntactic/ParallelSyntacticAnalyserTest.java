@@ -0,0 +1,117 @@
+package syntactic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import lexical.LexicalAnalyser;
+import lexical.Symbol;
+import semantic.SemanticAnalyser;
+import semantic.SemanticException;
+
+public class ParallelSyntacticAnalyserTest {
+
+	private static String procedures(int count)
+	{
+		StringBuilder code = new StringBuilder();
+
+		for (int i = 0; i < count; i++)
+		{
+			code.append("procedure p").append(i).append(" (a: integer; b: real);\n");
+			code.append("var c: integer;\n");
+			code.append("procedure q; begin if a > 1 then begin c := a end else b := 2 end;\n");
+			code.append("begin c := a + 1; while c > 1 do begin c := c - 1; q end; do b := b * 2 while b < 10 end;\n");
+		}
+
+		return code.toString();
+	}
+
+	/**
+	 * Analyses a code sequentially and in parallel, in runs of a single
+	 * procedure, and checks both get the same events, exception and tree.
+	 * @return the exception.
+	 */
+	private static RuntimeException compare(String code)
+	{
+		List<Symbol> symbols = LexicalAnalyser.process(code);
+		EventLog sequential = new EventLog();
+		EventLog parallel = new EventLog();
+		RuntimeException expected = null;
+		RuntimeException actual = null;
+
+		try { new SyntacticAnalyser(symbols, sequential).analyse(); }
+		catch (RuntimeException e) { expected = e; }
+
+		try { new ParallelSyntacticAnalyser(symbols, parallel, ForkJoinPool.commonPool(), 1).analyse(); }
+		catch (RuntimeException e) { actual = e; }
+
+		assertEquals(sequential.toString(), parallel.toString());
+		assertEquals(String.valueOf(expected), String.valueOf(actual));
+
+		if (expected == null)
+		{
+			assertEquals(print(new SyntacticAnalyser(symbols).analyseTree()),
+					print(new ParallelSyntacticAnalyser(symbols, new EmptySyntaticListener(), ForkJoinPool.commonPool(), 1).analyseTree()));
+		}
+
+		return actual;
+	}
+
+	private static String print(SyntaxTree tree)
+	{
+		StringBuilder builder = new StringBuilder();
+
+		for (int node = 0; node < tree.size(); node++)
+		{
+			builder.append(tree.getKind(node)).append(' ').append(tree.getToken(node)).append(' ')
+					.append(tree.getFirstChild(node)).append(' ').append(tree.getNextSibling(node)).append('\n');
+		}
+
+		return builder.toString();
+	}
+
+	@Test
+	public void test()
+	{
+		assertEquals(null, compare("program id; var a: integer; " + procedures(50) + " begin p0(a, 1) end."));
+		assertEquals(null, compare("program id; " + procedures(2) + " begin end."));
+		assertEquals(null, compare("program id; begin end."));
+	}
+
+	@Test
+	public void testErrors()
+	{
+		// The first error in the code is thrown, even if a run after it fails
+		String code = "program id; " + procedures(10) + "procedure r; begin x := ; end;\n" + procedures(10)
+				+ "procedure s; begin if end; begin end.";
+		assertEquals("Didn't match any factor possibility, token ';', at line 41", compare(code).getMessage());
+
+		// A run that doesn't end where it was scanned is matched again
+		assertTrue(compare("program id; " + procedures(5) + "procedure r; begin end begin end; " + procedures(5) + " begin end.")
+				instanceof SyntacticException);
+		assertTrue(compare("program id; " + procedures(5) + "procedure r; begin end") instanceof SyntacticException);
+	}
+
+	@Test
+	public void testSemanticErrors()
+	{
+		// The listener gets the events in order, so a semantic error in a
+		// procedure is thrown before a syntactic error in a later one
+		String code = "program id; " + procedures(10) + "procedure r; begin x := 1 end; " + procedures(10)
+				+ "procedure s; begin x := ; end; begin end.";
+
+		try {
+			new ParallelSyntacticAnalyser(LexicalAnalyser.process(code), new SemanticAnalyser(), ForkJoinPool.commonPool(), 1).analyse();
+			fail();
+		}
+		catch (SemanticException e) {
+			assertTrue(e.getMessage().contains("token 'x'"));
+		}
+	}
+
+}
@@ -1,11 +1,16 @@
 package syntactic;
 import static org.junit.Assert.*;
 
+import java.io.StringReader;
+
 import org.junit.Test;
 
 import lexical.LexicalAnalyser;
+import lexical.Symbol;
+import lexical.TokenStream;
 import syntactic.SyntacticAnalyser;
 import syntactic.SyntacticException;
+import syntactic.SyntacticListener;
 import utils.Log;
 
 public class SyntacticAnalyserTest
@@ -140,6 +145,162 @@ public class SyntacticAnalyserTest
 		failCode("program id; procedure proc; begin id > 1 do id := 1 end; begin end.");
 	}
 	
+	private static int countMatchIndex(String code)
+	{
+		int[] count = { 0 };
+		
+		try {
+			new SyntacticAnalyser(LexicalAnalyser.process(code), new EmptySyntaticListener() {
+				@Override
+				public void matchIndex(int i) { count[0]++; }
+			}).analyse();
+		}
+		catch (SyntacticException e) { }
+		
+		return count[0];
+	}
+	
+	@Test
+	public void testMatchIndex()
+	{
+		// Each alternative that doesn't match is reported, as when they
+		// were tried in order: compound, if, while and do
+		assertEquals(4, countMatchIndex("program id; begin end."));
+		assertEquals(2, countMatchIndex("program id; begin while id > 1 do id := 1 end."));
+		assertEquals(7, countMatchIndex("program id; begin do begin id := 1; end while id end."));
+		assertEquals(2, countMatchIndex("program id; begin if id then if id > 1 then id := 1 else id := 2 end."));
+		assertEquals(4, countMatchIndex("program id; begin if id > 1 id := 1 end."));
+		assertEquals(0, countMatchIndex("program id; begin begin id := 1 end."));
+		
+		// And so is a relational part that doesn't match
+		assertEquals(1, countMatchIndex("program id; begin id := id > begin end."));
+	}
+	
+	@Test
+	public void testEvents()
+	{
+		String code = "program id; var a: integer; begin a := a + 1; if a > 1 then a := 2 end.";
+		StringBuilder events = new StringBuilder();
+		
+		// Only the events the listener is interested in are called
+		new SyntacticAnalyser(LexicalAnalyser.process(code), new EmptySyntaticListener() {
+			@Override
+			public int getEvents() { return VARIABLE | OPERATOR; }
+			
+			@Override
+			public void onVariable(int i, Symbol symbol) { events.append(symbol.getToken()); }
+			
+			@Override
+			public void onOperator(int i, Symbol symbol) { events.append(symbol.getToken()); }
+			
+			@Override
+			public void onValue(int i, Symbol symbol) { fail(); }
+			
+			@Override
+			public void matchIndex(int i) { fail(); }
+		}).analyse();
+		
+		assertEquals("aa+:=a>a:=", events.toString());
+		
+		// And none without a listener
+		new SyntacticAnalyser(LexicalAnalyser.process(code), null).analyse();
+		assertEquals(SyntacticListener.NONE, new EmptySyntaticListener().getEvents());
+	}
+	
+	private static String repeat(String element, String separator, int count)
+	{
+		StringBuilder list = new StringBuilder(element);
+		for (int i = 1; i < count; i++) list.append(separator).append(element);
+		return list.toString();
+	}
+	
+	@Test
+	public void testLongLists()
+	{
+		// Lists don't recurse on each element, so they don't overflow the stack
+		int count = 100000;
+		
+		testCode("program id; var " + repeat("id", ", ", count) + ": integer; begin end.");
+		testCode("program id; var " + repeat("id: integer;", " ", count) + " begin end.");
+		testCode("program id; procedure proc (" + repeat("id: integer", "; ", count) + "); begin end; begin end.");
+		testCode("program id; " + repeat("procedure proc; begin end;", " ", count) + " begin end.");
+		testCode("program id; begin " + repeat("id := 1", "; ", count) + " end.");
+		testCode("program id; begin id := " + repeat("id", " + ", count) + " end.");
+		testCode("program id; begin id := " + repeat("id", " * ", count) + " end.");
+		testCode("program id; begin id := " + repeat("id * 2", " - ", count) + " > 1 end.");
+		testCode("program id; begin proc(" + repeat("id + 1", ", ", count) + ") end.");
+		
+		failCode("program id; begin id := " + repeat("id", " + ", count) + " + end.");
+		failCode("program id; var " + repeat("id", ", ", count) + ", : integer; begin end.");
+	}
+	
+	private static String analyse(SyntacticAnalyser analyser)
+	{
+		try {
+			analyser.analyse();
+			return "Success";
+		}
+		catch (SyntacticException e) {
+			return e.getMessage();
+		}
+	}
+	
+	private static void testStream(String code)
+	{
+		SyntacticListener listener = new EmptySyntaticListener();
+	
+		assertEquals(analyse(new SyntacticAnalyser(LexicalAnalyser.process(code), listener)),
+				analyse(new SyntacticAnalyser(new TokenStream(new StringReader(code)), listener)));
+	}
+	
+	/**
+	 * Runs a test on a thread with a large stack, as the nested commands
+	 * are matched by recursion.
+	 */
+	private static void onLargeStack(Runnable test) throws InterruptedException
+	{
+		Throwable[] failure = new Throwable[1];
+		Thread thread = new Thread(null, () -> {
+			try { test.run(); }
+			catch (Throwable e) { failure[0] = e; }
+		}, "large stack", 64L << 20);
+	
+		thread.start();
+		thread.join();
+	
+		if (failure[0] instanceof AssertionError) throw (AssertionError) failure[0];
+		if (failure[0] != null) throw new AssertionError(failure[0]);
+	}
+	
+	@Test
+	public void testStream() throws InterruptedException
+	{
+		// The symbols read again after a fallback are kept
+		testStream("program id; begin do while id > (1 + id) do begin id := 1; id := 2 end while id end.");
+		testStream("program id; begin do while id; id := 1 end.");
+		testStream("program id; begin if id > 1 then while id < (2 * id) do id := id + 1 else proc(id > 1 + 2) end.");
+		testStream("program id; begin id := id > begin end.");
+		testStream("program id; begin if id > 1 id := 1 end.");
+		testStream("program id; begin proc(id, ; end.");
+		testStream("program id; begin id := 1");
+	
+		// The token after a relational operator is reported by a procedure
+		// call after a fallback, however long its right operand was
+		String operand = repeat("(1 +", " ", 40) + " 1";
+		testStream("program p; procedure c(x: integer); begin end;\nbegin c(1 = +" + operand + "; end.");
+		testStream("program p; begin begin c(1 = +" + operand + "; end.");
+		testStream("program p; begin c(1, 2 = 1 + + 3 + 4 + 5 + 6 + 7 + 8 + 9 + 10, 3) end.");
+	
+		testStream("program id; begin " + repeat("id := id + 1 * (id - 2)", "; ", 100000) + " end.");
+	
+		// Control commands are nested by recursion
+		int depth = 1000;
+		onLargeStack(() -> {
+			testStream("program id; begin " + repeat("while id > 1 do if id then id := 1 else", " ", depth) + " id := 2 end.");
+			testStream("program id; begin " + repeat("do while id do", " ", depth) + " id := 1" + repeat(" while id", "", depth) + " end.");
+		});
+	}
+	
 	@Test
 	public void fullTest()
 	{
@@ -0,0 +1,139 @@
+package syntactic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import lexical.LexicalAnalyser;
+
+public class SyntaxTreeTest {
+	
+	/**
+	 * Prints the subtree of the node of a cursor as "Kind token" followed
+	 * by its children in brackets.
+	 */
+	private static void print(SyntaxTree.Cursor cursor, StringBuilder builder)
+	{
+		builder.append(cursor.getKind()).append(' ').append(cursor.getSymbol().getToken());
+		
+		if (cursor.firstChild())
+		{
+			builder.append(" [");
+			
+			do {
+				print(cursor, builder);
+				builder.append(", ");
+			}
+			while (cursor.nextSibling());
+			
+			builder.setLength(builder.length() - 2);
+			builder.append(']');
+			cursor.parent();
+		}
+	}
+	
+	private static String print(String code)
+	{
+		StringBuilder builder = new StringBuilder();
+		print(new SyntacticAnalyser(LexicalAnalyser.process(code)).analyseTree().cursor(), builder);
+		return builder.toString();
+	}
+	
+	private static String program(String body) {
+		return print("program id; begin " + body + " end.");
+	}
+	
+	@Test
+	public void testDeclarations()
+	{
+		assertEquals("Program id [Declaration integer [Identifier a, Identifier b], Declaration real [Identifier c], "
+				+ "Procedure p [Parameters ( [Declaration integer [Identifier x]], Compound begin], Compound begin]",
+				print("program id; var a, b: integer; c: real; procedure p(x: integer); begin end; begin end."));
+		
+		assertEquals("Program id [Procedure p [Parameters ;, Declaration boolean [Identifier y], "
+				+ "Procedure q [Parameters ;, Compound begin], Compound begin], Compound begin]",
+				print("program id; procedure p; var y: boolean; procedure q; begin end; begin end; begin end."));
+	}
+	
+	@Test
+	public void testCommands()
+	{
+		assertEquals("Program id [Compound begin [Assignment := [Variable x, Value 1], Call p, Call q [Variable x, Value 2]]]",
+				program("x := 1; p; q(x, 2)"));
+		
+		assertEquals("Program id [Compound begin [If if [Binary > [Variable x, Value 1], Assignment := [Variable x, Value 1], "
+				+ "While while [Variable y, Compound begin [Assignment := [Variable y, Value 2]]]]]]",
+				program("if x > 1 then x := 1 else while y do begin y := 2 end"));
+		
+		assertEquals("Program id [Compound begin [DoWhile do [Assignment := [Variable x, Value 1], Binary < [Variable x, Value 2]]]]",
+				program("do x := 1 while x < 2"));
+		
+		// Empty commands are only kept in control commands
+		assertEquals("Program id [Compound begin [If if [Variable x, Empty else, Empty ;]]]",
+				program("if x then else ;"));
+	}
+	
+	@Test
+	public void testExpressions()
+	{
+		// Operators of the same precedence are left associative
+		assertEquals("Program id [Compound begin [Assignment := [Variable x, Binary - [Binary + [Variable a, "
+				+ "Binary * [Binary * [Variable b, Variable c], Value 2]], Variable d]]]]",
+				program("x := a + b * c * 2 - d"));
+		
+		assertEquals("Program id [Compound begin [Assignment := [Variable x, Binary or [Binary + [Unary - [Variable a], Value 1], "
+				+ "Unary not [Unary not [Binary = [Variable b, Value true]]]]]]]",
+				program("x := -a + 1 or not not (b = true)"));
+	}
+	
+	@Test
+	public void testBacktracking()
+	{
+		// The 'while' fails without 'do', so it's the condition of the 'do'
+		assertEquals("Program id [Compound begin [DoWhile do [Empty while, Variable x]]]",
+				program("do while x"));
+		
+		try {
+			program("if x then begin x := 1");
+			fail();
+		}
+		catch (SyntacticException e) { }
+	}
+	
+	@Test
+	public void testCursor()
+	{
+		SyntaxTree tree = new SyntacticAnalyser(LexicalAnalyser.process("program id; begin x := 1 end.")).analyseTree();
+		SyntaxTree.Cursor cursor = tree.cursor();
+		
+		assertEquals(5, tree.size());
+		assertEquals(tree.getRoot(), cursor.getNode());
+		assertFalse(cursor.parent());
+		assertFalse(cursor.nextSibling());
+		
+		cursor.firstChild();
+		cursor.firstChild();
+		cursor.firstChild();
+		assertEquals(3, cursor.getDepth());
+		assertEquals(NodeKind.Variable, cursor.getKind());
+		assertEquals(4, cursor.getToken());
+		assertFalse(cursor.firstChild());
+		
+		cursor.nextSibling();
+		assertEquals("1", cursor.getSymbol().getToken());
+		assertFalse(cursor.nextSibling());
+		
+		cursor.parent();
+		assertEquals(NodeKind.Assignment, cursor.getKind());
+		assertEquals(-1, tree.getNextSibling(cursor.getNode()));
+		
+		// The tokens of a node end after the ones of its children
+		assertEquals(7, cursor.getEnd());
+		cursor.parent();
+		assertEquals(8, cursor.getEnd());
+		assertEquals(9, tree.getEnd(tree.getRoot()));
+	}
+	
+}
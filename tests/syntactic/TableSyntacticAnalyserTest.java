@@ -0,0 +1,133 @@
+package syntactic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import lexical.LexicalAnalyser;
+import lexical.Symbol;
+import semantic.SemanticAnalyser;
+
+public class TableSyntacticAnalyserTest
+{
+	private static final String CODE = "program id; var x, y: integer; z: real;\n"
+			+ "procedure p(a, b: integer; c: boolean); var d: integer;\n"
+			+ "procedure q; begin end;\n"
+			+ "begin if a > 1 then if c then d := a else d := -b * (a + 2) / 3 end;\n"
+			+ "begin while x <> 1 do begin x := x - 1; p(x, 2, not true) end;\n"
+			+ "do y := y + 1 while (y < 10) and (x >= 0); z := 2.5; p(x + 1, y, false); begin end end.";
+	
+	/**
+	 * Analyses a code by the hand-written analyser and by the table, and
+	 * checks both get the same committed events and exception.
+	 * @return the exception.
+	 */
+	private static RuntimeException compare(String code)
+	{
+		List<Symbol> symbols = LexicalAnalyser.process(code);
+		EventLog expected = new EventLog();
+		EventLog actual = new EventLog();
+		RuntimeException expectedException = null;
+		RuntimeException actualException = null;
+		
+		try { new SyntacticAnalyser(symbols, expected).analyse(); }
+		catch (RuntimeException e) { expectedException = e; }
+		
+		try { new TableSyntacticAnalyser(symbols, actual).analyse(); }
+		catch (RuntimeException e) { actualException = e; }
+		
+		assertEquals(String.valueOf(expectedException), String.valueOf(actualException));
+		if (expectedException == null) assertEquals(expected.toString(), actual.toString());
+		
+		return actualException;
+	}
+	
+	private static String failCode(String code)
+	{
+		try {
+			new TableSyntacticAnalyser(LexicalAnalyser.process(code)).analyse();
+			fail("Should have throw an exception");
+			return null;
+		}
+		catch (SyntacticException e) {
+			return e.getMessage();
+		}
+	}
+	
+	@Test
+	public void testEvents()
+	{
+		assertEquals(null, compare(CODE));
+		assertEquals(null, compare("program id; begin end."));
+		assertEquals(null, compare("program id; begin if a then else end."));
+		
+		// A 'while' after a 'do' goes back to the do-while command if the
+		// while-do one doesn't match
+		assertEquals(null, compare("program id; begin do while b end."));
+		assertEquals(null, compare("program id; begin do if a then while b end."));
+		assertEquals(null, compare("program id; begin do while a do x := 1 while b end."));
+		
+		new TableSyntacticAnalyser(LexicalAnalyser.process(CODE), new SemanticAnalyser()).analyse();
+	}
+	
+	@Test
+	public void testMask()
+	{
+		String code = "program id; var a: integer; begin a := a + 1; if a > 1 then a := 2 end.";
+		StringBuilder events = new StringBuilder();
+		
+		// Only the events the listener is interested in are called
+		new TableSyntacticAnalyser(LexicalAnalyser.process(code), new EmptySyntaticListener() {
+			@Override
+			public int getEvents() { return VARIABLE | OPERATOR; }
+			
+			@Override
+			public void onVariable(int i, Symbol symbol) { events.append(symbol.getToken()); }
+			
+			@Override
+			public void onOperator(int i, Symbol symbol) { events.append(symbol.getToken()); }
+			
+			@Override
+			public void onValue(int i, Symbol symbol) { fail(); }
+		}).analyse();
+		
+		assertEquals("aa+:=a>a:=", events.toString());
+		
+		new TableSyntacticAnalyser(LexicalAnalyser.process(code), null).analyse();
+	}
+	
+	@Test
+	public void testErrors()
+	{
+		compare("progra id; begin end.");
+		compare("program id; var x integer; begin end.");
+		compare("program id; var x: text; begin end.");
+		compare("program id; begin x := ; end.");
+		compare("program id; begin end");
+		compare("program id; begin end. x");
+		compare("program id; begin ; end.");
+		assertEquals("Unexpected end of file", failCode(""));
+		
+		// The error is where no production matches, after the other one of
+		// the last choice
+		assertEquals("Missing delimitier ')' from procedure call, token ';', at line 1",
+				failCode("program id; begin p(x; end."));
+		assertEquals("Missing 'while' statement, token 'end', at line 1",
+				failCode("program id; begin do while b do end."));
+	}
+	
+	@Test
+	public void testDepth()
+	{
+		// The productions are on a stack of its own, so deeply nested
+		// commands don't overflow the one of the thread
+		StringBuilder code = new StringBuilder("program id; begin ");
+		for (int i = 0; i < 100000; i++) code.append("if a then begin ");
+		for (int i = 0; i < 100000; i++) code.append("end ");
+		
+		new TableSyntacticAnalyser(LexicalAnalyser.process(code.append("end.").toString())).analyse();
+	}
+}